@@ -4,28 +4,33 @@ import EngineImpl from './app/core/EngineImpl';
 import { ChainType, Sqlite, util } from 'paliwallet-core';
 import { randomTransactionId } from './app/util/number';
 import NativeWorker from './NativeWorker';
+import * as Channel from './app/threads/MessageChannel';
+import * as StateStore from './app/threads/StateStore';
+
+// messages to the app, over the native channel where there is one
+function send(message) {
+	if (Channel.isAvailable) {
+		Channel.post(message);
+	} else {
+		self.postMessage(JSON.stringify(message));
+	}
+}
 
 function handlePromise(initData: any, p: Promise<any>) {
 	p.then(
 		value => {
-			// send a message, strings only
-			self.postMessage(
-				JSON.stringify({
-					status: 'ok',
-					_id: initData._id,
-					value: value || ''
-				})
-			);
+			send({
+				status: 'ok',
+				_id: initData._id,
+				value: value || ''
+			});
 		},
 		err => {
-			// send a message, strings only
-			self.postMessage(
-				JSON.stringify({
-					status: 'error',
-					_id: initData._id,
-					value: err.message
-				})
-			);
+			send({
+				status: 'error',
+				_id: initData._id,
+				value: err.message
+			});
 		}
 	);
 }
@@ -123,59 +128,50 @@ class TodoApi {
 		const oldEmit = emitter.emit;
 		emitter.emit = function(...args) {
 			oldEmit.apply(emitter, args);
-			self.postMessage(
-				JSON.stringify({
-					status,
-					value: { key: name, args }
-				})
-			);
+			send({
+				status,
+				value: { key: name, args }
+			});
 		};
 	}
 	dispatchKeyringControllerOnLock() {
-		self.postMessage(
-			JSON.stringify({
-				status: 'OnLock'
-			})
-		);
+		send({
+			status: 'OnLock'
+		});
 	}
 	dispatchKeyringControllerOnUnlock() {
-		self.postMessage(
-			JSON.stringify({
-				status: 'onUnlock'
-			})
-		);
+		send({
+			status: 'onUnlock'
+		});
 	}
 	dispatchControllerState(key, state, overwrite) {
-		self.postMessage(
-			JSON.stringify({
-				status: 'state',
-				value: { key, state, overwrite }
-			})
-		);
+		if (StateStore.isAvailable) {
+			// the store coalesces until the app takes the next batch, then ships only the patch
+			StateStore.publish(key, state, overwrite);
+			return;
+		}
+		send({
+			status: 'state',
+			value: { key, state, overwrite }
+		});
 	}
 	dispatchNotification(type, needUpdate) {
-		self.postMessage(
-			JSON.stringify({
-				status: 'notification',
-				value: { type, needUpdate }
-			})
-		);
+		send({
+			status: 'notification',
+			value: { type, needUpdate }
+		});
 	}
 	dispatchNetworkChanged(type, chainId) {
-		self.postMessage(
-			JSON.stringify({
-				status: 'network_changed',
-				value: { type, chainId }
-			})
-		);
+		send({
+			status: 'network_changed',
+			value: { type, chainId }
+		});
 	}
 	dispatchEndNetworkChange(type, providerType) {
-		self.postMessage(
-			JSON.stringify({
-				status: 'end_network_change',
-				value: { type, providerType }
-			})
-		);
+		send({
+			status: 'end_network_change',
+			value: { type, providerType }
+		});
 	}
 	async useOffchainEndPoint() {
 		return this.postAsync('useOffchainEndPoint');
@@ -198,7 +194,7 @@ class TodoApi {
 			this.listeners[_id] = callback;
 			message._id = _id;
 		}
-		self.postMessage(JSON.stringify(message));
+		send(message);
 	}
 	toMessage(funcName: any, args = []) {
 		return {
@@ -218,9 +214,7 @@ class TodoApi {
 
 const api = new TodoApi();
 
-// listen for messages
-self.onmessage = message => {
-	const data = JSON.parse(message);
+function onMessage(data) {
 	// util.logDebug('PPYang NativeWorker data:', data);
 	if (data.status && data._id) {
 		api.handCallback(data);
@@ -266,7 +260,13 @@ self.onmessage = message => {
 		default:
 			handlePromise(data, api.error.apply(api));
 	}
-};
+}
+
+// listen for messages
+if (Channel.isAvailable) {
+	Channel.listen(onMessage);
+}
+self.onmessage = message => onMessage(JSON.parse(message));
 
 export default {
 	get Api() {
@@ -13,8 +13,13 @@ import com.facebook.react.ReactPackage;
 import com.facebook.soloader.SoLoader;
 import cl.json.ShareApplication;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
 import java.util.List;
 import io.invertase.firebase.analytics.ReactNativeFirebaseAnalyticsPackage;
+import io.paliwallet.nativeModules.JsonRpcPackage;
+import io.paliwallet.nativeModules.KeyVaultPackage;
+import io.paliwallet.nativeModules.MessageChannelModule;
+import io.paliwallet.nativeModules.MessageChannelPackage;
 import io.paliwallet.nativeModules.PreventScreenshotPackage;
 import com.swmansion.reanimated.ReanimatedJSIModulePackage;
 import com.facebook.react.bridge.JSIModulePackage;
@@ -23,9 +28,14 @@ import android.text.TextUtils;
 
 import androidx.multidex.MultiDexApplication;
 
-import android.database.CursorWindow;
-import java.lang.reflect.Field;
 import io.paliwallet.nativeModules.RNToolsPackage;
+import io.paliwallet.nativeModules.TransactionStorePackage;
+import io.paliwallet.utils.HttpResponseCache;
+import io.paliwallet.utils.StartupGate;
+import io.paliwallet.utils.StartupTracer;
+import io.paliwallet.utils.StoragePressureMonitor;
+
+import com.facebook.drawee.backends.pipeline.Fresco;
 
 import com.cmcewen.blurview.BlurViewPackage;
 import com.brentvatne.react.ReactVideoPackage;
@@ -74,12 +84,16 @@ public class MainApplication extends MultiDexApplication implements ShareApplica
     
 		@Override
 		protected List<ReactPackage> getPackages() {
+			StartupTracer.begin("getPackages");
 			@SuppressWarnings("UnnecessaryLocalVariable")
 			List<ReactPackage> packages = new PackageList(this).getPackages();
 			packages.add(new LottiePackage());
 			packages.add(new RNGestureHandlerPackage());
 			packages.add(new PreventScreenshotPackage());
 			packages.add(new RNToolsPackage());
+			packages.add(new JsonRpcPackage());
+			packages.add(new MessageChannelPackage(MessageChannelModule.SIDE_MAIN));
+			packages.add(new KeyVaultPackage());
 			packages.add(new MPAndroidChartPackage());
 			packages.add(new BlurViewPackage());
 			packages.add(new ReactVideoPackage());
@@ -96,8 +110,13 @@ public class MainApplication extends MultiDexApplication implements ShareApplica
 				new SQLitePluginPackage(),
 				new TcpSocketsModule(),
 				new RNFetchBlobPackage(),
-				new PreventScreenshotPackage()
+				new PreventScreenshotPackage(),
+				new KeyVaultPackage(),
+				new JsonRpcPackage(),
+				new MessageChannelPackage(MessageChannelModule.SIDE_WORKER),
+				new TransactionStorePackage()
 			));
+			StartupTracer.end();
 			return packages;
 		}
 
@@ -119,21 +138,26 @@ public class MainApplication extends MultiDexApplication implements ShareApplica
 
 	@Override
 	public void onCreate() {
+		StartupTracer.start(this);
+		StartupTracer.begin("Application.onCreate");
 		super.onCreate();
-		try {
-			Field field = CursorWindow.class.getDeclaredField("sCursorWindowSize");
-			field.setAccessible(true);
-			field.set(null, 10 * 1024 * 1024); //the 10MB is the new size
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
+		StartupGate.onAppCreate(this);
 
 //		if (BuildConfig.DEBUG) {
 //			WebView.setWebContentsDebuggingEnabled(true);
 //		}
+		StartupTracer.begin("SoLoader.init");
 		SoLoader.init(this, /* native exopackage */ false);
+		StartupTracer.end();
+		StartupTracer.begin("registerEvictionHooks");
+		registerEvictionHooks();
+		HttpResponseCache.install(this);
+		StartupTracer.end();
 
+		StartupTracer.begin("initializeFlipper");
 		initializeFlipper(this, getReactNativeHost().getReactInstanceManager());
+		StartupTracer.end();
+		StartupTracer.end();
     }
 
     /**
@@ -167,6 +191,29 @@ public class MainApplication extends MultiDexApplication implements ShareApplica
 		}
 	}
 
+	private void registerEvictionHooks() {
+		StoragePressureMonitor monitor = StoragePressureMonitor.getInstance(this);
+		monitor.registerEvictionHook("fresco", StoragePressureMonitor.PRIORITY_OWNED_CACHE,
+			new StoragePressureMonitor.EvictionHook() {
+			@Override
+			public long evict(int level) {
+				if (!Fresco.hasBeenInitialized()) {
+					return 0;
+				}
+				Fresco.getImagePipeline().clearDiskCaches();
+				return -1;
+			}
+		});
+		// The system may clear the cache dir at any time, so nothing there is needed, except the
+		// caches open while the app runs: OkHttp's and Fresco's are evicted through their own
+		// hooks first, WebView's is left to WebView.
+		monitor.registerEvictionHook("cacheDir", StoragePressureMonitor.PRIORITY_SWEEP,
+			StoragePressureMonitor.directoryHook(getCacheDir(), StoragePressureMonitor.LEVEL_CRITICAL,
+				Arrays.asList(HttpResponseCache.CACHE_DIR, "image_cache", "image_small_cache",
+					"WebView", "org.chromium.android_webview")));
+		monitor.start();
+	}
+
 	@Override
 	public String getFileProviderAuthority() {
 		return BuildConfig.APPLICATION_ID + ".provider";
@@ -0,0 +1,16 @@
+package io.paliwallet.nativeModules;
+
+import com.facebook.react.bridge.NativeModule;
+import com.facebook.react.bridge.ReactApplicationContext;
+
+public class JsonRpcPackage extends LazyModulePackage {
+
+  public JsonRpcPackage() {
+    declare(JsonRpcTransport.NAME, JsonRpcTransport.class);
+  }
+
+  @Override
+  protected NativeModule createModule(String name, ReactApplicationContext reactContext) {
+    return new JsonRpcTransport(reactContext);
+  }
+}
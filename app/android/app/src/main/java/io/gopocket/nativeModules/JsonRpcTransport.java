@@ -0,0 +1,150 @@
+package io.paliwallet.nativeModules;
+
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.network.OkHttpClientProvider;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+import java.util.Map;
+
+import io.paliwallet.utils.JsonRpcClient;
+
+/**
+ * JSON-RPC transport for the engine's web3 providers (see NativeRpcSubprovider.js). Calls from
+ * the app and the worker share one {@link JsonRpcClient}, so each endpoint keeps a single
+ * connection pool and concurrent calls are batched across both; responses reach JS as maps
+ * already parsed.
+ */
+public class JsonRpcTransport extends ReactContextBaseJavaModule {
+	static final String NAME = "PaliRpc";
+	private static final String TAG = "JsonRpcTransport";
+	private static final String RPC_ERROR_CODE = "RPC_ERROR";
+	private static final long BATCH_WINDOW_MS = 10;
+	private static final int MAX_BATCH_SIZE = 32;
+	// well under the block time of the fastest supported chain (Rollux, 2 s)
+	private static final long LATEST_RESULT_TTL_MS = 1000;
+
+	private static JsonRpcClient sClient;
+
+	JsonRpcTransport(ReactApplicationContext context) {
+		super(context);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	private static synchronized JsonRpcClient getClient() {
+		if (sClient == null) {
+			sClient = new JsonRpcClient(OkHttpClientProvider.getOkHttpClient(), BATCH_WINDOW_MS, MAX_BATCH_SIZE,
+				LATEST_RESULT_TTL_MS);
+		}
+		return sClient;
+	}
+
+	/** Resolves the JSON-RPC response object for {@code payload}, a single request as JSON. */
+	@ReactMethod
+	public void send(String url, String payload, final Promise p) {
+		JSONObject request;
+		try {
+			request = new JSONObject(payload);
+		} catch (JSONException e) {
+			p.reject(RPC_ERROR_CODE, e);
+			return;
+		}
+		getClient().send(url, request, new JsonRpcClient.Callback() {
+			@Override
+			public void onResponse(JSONObject response) {
+				try {
+					p.resolve(toWritableMap(response));
+				} catch (JSONException e) {
+					p.reject(RPC_ERROR_CODE, e);
+				}
+			}
+
+			@Override
+			public void onFailure(Exception e) {
+				Log.w(TAG, "rpc failed: " + e.getMessage());
+				p.reject(RPC_ERROR_CODE, e);
+			}
+		});
+	}
+
+	@ReactMethod
+	public void getStats(Promise p) {
+		WritableMap stats = Arguments.createMap();
+		for (Map.Entry<String, long[]> entry : getClient().getStats().entrySet()) {
+			long[] values = entry.getValue();
+			WritableMap endpoint = Arguments.createMap();
+			endpoint.putDouble("calls", values[0]);
+			endpoint.putDouble("batches", values[1]);
+			endpoint.putDouble("httpRequests", values[2]);
+			endpoint.putDouble("failures", values[3]);
+			endpoint.putDouble("coalesced", values[4]);
+			endpoint.putDouble("cacheHits", values[5]);
+			// share of calls that never reached the network on their own
+			endpoint.putDouble("dedupeRatio", values[0] == 0 ? 0 : (double) (values[4] + values[5]) / values[0]);
+			stats.putMap(entry.getKey(), endpoint);
+		}
+		p.resolve(stats);
+	}
+
+	private static WritableMap toWritableMap(JSONObject object) throws JSONException {
+		WritableMap map = Arguments.createMap();
+		for (Iterator<String> it = object.keys(); it.hasNext(); ) {
+			String key = it.next();
+			Object value = object.get(key);
+			if (value instanceof JSONObject) {
+				map.putMap(key, toWritableMap((JSONObject) value));
+			} else if (value instanceof JSONArray) {
+				map.putArray(key, toWritableArray((JSONArray) value));
+			} else if (value instanceof Boolean) {
+				map.putBoolean(key, (Boolean) value);
+			} else if (value instanceof Integer) {
+				map.putInt(key, (Integer) value);
+			} else if (value instanceof Number) {
+				map.putDouble(key, ((Number) value).doubleValue());
+			} else if (value instanceof String) {
+				map.putString(key, (String) value);
+			} else {
+				map.putNull(key);
+			}
+		}
+		return map;
+	}
+
+	private static WritableArray toWritableArray(JSONArray array) throws JSONException {
+		WritableArray result = Arguments.createArray();
+		for (int i = 0; i < array.length(); i++) {
+			Object value = array.get(i);
+			if (value instanceof JSONObject) {
+				result.pushMap(toWritableMap((JSONObject) value));
+			} else if (value instanceof JSONArray) {
+				result.pushArray(toWritableArray((JSONArray) value));
+			} else if (value instanceof Boolean) {
+				result.pushBoolean((Boolean) value);
+			} else if (value instanceof Integer) {
+				result.pushInt((Integer) value);
+			} else if (value instanceof Number) {
+				result.pushDouble(((Number) value).doubleValue());
+			} else if (value instanceof String) {
+				result.pushString((String) value);
+			} else {
+				result.pushNull();
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,114 @@
+package io.paliwallet.nativeModules;
+
+import android.os.Process;
+import android.util.Base64;
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableMap;
+
+import java.security.SecureRandom;
+
+import io.paliwallet.utils.CryptUtil;
+import io.paliwallet.utils.KeyDerivationCache;
+
+/**
+ * Vault key service for app/core/Encryptor.js. {@code derive} runs PBKDF2 and returns an opaque
+ * handle, which {@code encrypt}/{@code decrypt} then take instead of the password until it is
+ * released. Output is compatible with react-native-aes-crypto (hex IV, base64 ciphertext).
+ */
+public class KeyVault extends ReactContextBaseJavaModule {
+	static final String NAME = "PaliKeyVault";
+	private static final String KEY_VAULT_ERROR_CODE = "KEY_VAULT_ERROR";
+	private static final int IV_LENGTH = 16;
+
+	private final SecureRandom mRandom = new SecureRandom();
+	private final ModuleExecutor mExecutor =
+		new ModuleExecutor("KeyVault", 1, 16, Process.THREAD_PRIORITY_DEFAULT);
+
+	KeyVault(ReactApplicationContext context) {
+		super(context);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public void invalidate() {
+		mExecutor.shutdown();
+		super.invalidate();
+	}
+
+	@ReactMethod
+	public void derive(final String password, final String salt, final int iterations, final int keyBits,
+					   final Promise p) {
+		mExecutor.execute("derive", p, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					p.resolve(KeyDerivationCache.derive(password, salt, iterations, keyBits));
+				} catch (Exception e) {
+					Log.e("KeyVault", "derive error: ", e);
+					p.reject(KEY_VAULT_ERROR_CODE, e);
+				}
+			}
+		});
+	}
+
+	@ReactMethod
+	public void encrypt(final String text, final String handle, final Promise p) {
+		mExecutor.execute("encrypt", p, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					byte[] iv = new byte[IV_LENGTH];
+					mRandom.nextBytes(iv);
+					byte[] cipher = CryptUtil.encryptWithIv(text.getBytes("UTF-8"),
+						KeyDerivationCache.getKey(handle), iv);
+					WritableMap result = Arguments.createMap();
+					result.putString("cipher", Base64.encodeToString(cipher, Base64.NO_WRAP));
+					result.putString("iv", KeyDerivationCache.toHex(iv));
+					p.resolve(result);
+				} catch (Exception e) {
+					Log.e("KeyVault", "encrypt error: ", e);
+					p.reject(KEY_VAULT_ERROR_CODE, e);
+				}
+			}
+		});
+	}
+
+	@ReactMethod
+	public void decrypt(final String cipher, final String ivHex, final String handle, final Promise p) {
+		mExecutor.execute("decrypt", p, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					byte[] text = CryptUtil.decryptWithIv(Base64.decode(cipher, Base64.NO_WRAP),
+						KeyDerivationCache.getKey(handle), KeyDerivationCache.fromHex(ivHex));
+					p.resolve(new String(text, "UTF-8"));
+				} catch (Exception e) {
+					Log.e("KeyVault", "decrypt error: ", e);
+					p.reject(KEY_VAULT_ERROR_CODE, e);
+				}
+			}
+		});
+	}
+
+	@ReactMethod
+	public void release(String handle) {
+		KeyDerivationCache.release(handle);
+	}
+
+	/** Zeroes every derived key; called when the keyring locks. */
+	@ReactMethod
+	public void wipe(Promise p) {
+		KeyDerivationCache.wipe();
+		p.resolve(true);
+	}
+}
@@ -0,0 +1,16 @@
+package io.paliwallet.nativeModules;
+
+import com.facebook.react.bridge.NativeModule;
+import com.facebook.react.bridge.ReactApplicationContext;
+
+public class KeyVaultPackage extends LazyModulePackage {
+
+  public KeyVaultPackage() {
+    declare(KeyVault.NAME, KeyVault.class);
+  }
+
+  @Override
+  protected NativeModule createModule(String name, ReactApplicationContext reactContext) {
+    return new KeyVault(reactContext);
+  }
+}
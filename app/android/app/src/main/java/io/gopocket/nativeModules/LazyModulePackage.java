@@ -0,0 +1,51 @@
+package io.paliwallet.nativeModules;
+
+import com.facebook.react.TurboReactPackage;
+import com.facebook.react.bridge.NativeModule;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.module.model.ReactModuleInfo;
+import com.facebook.react.module.model.ReactModuleInfoProvider;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.paliwallet.utils.StartupTracer;
+
+/**
+ * Base of the in-house packages. Their modules are declared up front with ReactModuleInfo and only
+ * built when JS first reads them from NativeModules, in each context that does, rather than all
+ * of them whenever a context (the app's or a worker's) is created. Creations are counted by
+ * {@link StartupTracer#onModuleCreated}.
+ */
+public abstract class LazyModulePackage extends TurboReactPackage {
+	private final Map<String, ReactModuleInfo> mInfos = new HashMap<>();
+
+	/** Declares module {@code name}, built by {@link #createModule} on first use; call from the constructor. */
+	protected void declare(String name, Class<? extends NativeModule> type) {
+		// not eager, no constants, neither C++ nor a TurboModule
+		mInfos.put(name, new ReactModuleInfo(name, type.getName(), false, false, false, false, false));
+	}
+
+	/** Builds module {@code name}, one of the names this package was declared with. */
+	protected abstract NativeModule createModule(String name, ReactApplicationContext reactContext);
+
+	@Override
+	public NativeModule getModule(String name, ReactApplicationContext reactContext) {
+		if (!mInfos.containsKey(name)) {
+			return null;
+		}
+		NativeModule module = createModule(name, reactContext);
+		StartupTracer.onModuleCreated(name);
+		return module;
+	}
+
+	@Override
+	public ReactModuleInfoProvider getReactModuleInfoProvider() {
+		return new ReactModuleInfoProvider() {
+			@Override
+			public Map<String, ReactModuleInfo> getReactModuleInfos() {
+				return mInfos;
+			}
+		};
+	}
+}
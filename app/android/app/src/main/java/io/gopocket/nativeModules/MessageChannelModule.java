@@ -0,0 +1,315 @@
+package io.paliwallet.nativeModules;
+
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.paliwallet.utils.WorkerQueueMetrics;
+
+/**
+ * Message channel between the app's JS context and the RNThread worker (see
+ * app/threads/MessageChannel.js). Messages cross the bridge as maps rather than JSON strings, are
+ * queued as native maps for the other side, and reach it in batches: one event per drain,
+ * carrying every message queued since the last one. Messages wait in the queue until the
+ * receiving side has attached its listener, and the next batch waits until JS has acknowledged
+ * the previous one, so a busy context is not handed more than it can take. Requests and replies
+ * feed {@link WorkerQueueMetrics}.
+ *
+ * Towards the app, messages go through priority lanes: replies, lock events and hub emits
+ * (signature and approval requests) first, then network and notification events, then
+ * controller states, which {@link StateStoreModule} only diffs when a batch is drained, so a
+ * controller that changed several times while the app was busy costs one patch. Topics the app
+ * has not subscribed to are dropped before they are queued.
+ */
+public class MessageChannelModule extends ReactContextBaseJavaModule {
+	static final String NAME = "PaliChannel";
+	private static final String TAG = "MessageChannel";
+	public static final int SIDE_MAIN = 0;
+	public static final int SIDE_WORKER = 1;
+	private static final int SIDES = 2;
+	private static final String MESSAGES_EVENT = "PaliChannel.messages";
+
+	private static final int LANE_URGENT = 0;
+	private static final int LANE_EVENTS = 1;
+	private static final int LANE_STATE = 2;
+	private static final String[] LANE_NAMES = {"urgent", "events", "state"};
+
+	/** Messages waiting for one reader, in the order they were queued. */
+	private static class MessageQueue {
+		private List<WritableMap> mPending = new ArrayList<>();
+		private long mQueued;
+		private int mLargestBatch;
+
+		synchronized void add(WritableMap message) {
+			mQueued++;
+			mPending.add(message);
+		}
+
+		/** Moves every pending message into {@code messages}; returns how many there were. */
+		int drainTo(WritableArray messages) {
+			List<WritableMap> pending;
+			synchronized (this) {
+				if (mPending.isEmpty()) {
+					return 0;
+				}
+				pending = mPending;
+				mPending = new ArrayList<>();
+				mLargestBatch = Math.max(mLargestBatch, pending.size());
+			}
+			for (WritableMap message : pending) {
+				messages.pushMap(message);
+			}
+			return pending.size();
+		}
+
+		synchronized WritableMap getStats() {
+			WritableMap map = Arguments.createMap();
+			map.putDouble("messages", mQueued);
+			map.putInt("pending", mPending.size());
+			map.putInt("largestBatch", mLargestBatch);
+			return map;
+		}
+	}
+
+	private static final MessageQueue sWorkerQueue = new MessageQueue();
+	// the app's messages, by lane
+	private static final MessageQueue[] sLanes = new MessageQueue[LANE_NAMES.length];
+	// topics the app listens to, null until it subscribes
+	private static volatile Set<String> sTopics;
+	private static final AtomicLong sDropped = new AtomicLong();
+	private static final AtomicReferenceArray<MessageChannelModule> sReaders = new AtomicReferenceArray<>(SIDES);
+
+	private final boolean mWorker;
+	private final int mSide;
+	private final AtomicBoolean mDrainScheduled = new AtomicBoolean();
+	private final AtomicBoolean mAwaitingAck = new AtomicBoolean();
+	private final ExecutorService mDrainExecutor;
+
+	MessageChannelModule(ReactApplicationContext context, int side) {
+		super(context);
+		mWorker = side != SIDE_MAIN;
+		mSide = side;
+		mDrainExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				return new Thread(r, TAG + (mWorker ? "-worker" : "-main"));
+			}
+		});
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	/** Starts delivery to this side; call once the JS listener is in place. */
+	@ReactMethod
+	public void attach() {
+		mAwaitingAck.set(false);
+		sReaders.set(mSide, this);
+		scheduleDrain();
+	}
+
+	/** Called by JS when it has handled a batch; the next one can go out. */
+	@ReactMethod
+	public void ack() {
+		mAwaitingAck.set(false);
+		scheduleDrain();
+	}
+
+	/**
+	 * App only: the message statuses it has listeners for. Replies and worker callbacks always
+	 * go through; other messages without a subscriber are dropped in the worker's module.
+	 */
+	@ReactMethod
+	public void subscribe(ReadableArray topics) {
+		Set<String> set = new HashSet<>();
+		for (int i = 0; i < topics.size(); i++) {
+			set.add(topics.getString(i));
+		}
+		sTopics = set;
+	}
+
+	/** To the other side's JS context. */
+	@ReactMethod
+	public void post(ReadableMap message) {
+		int target;
+		MessageQueue queue;
+		if (mWorker) {
+			String status = message.hasKey("status") ? message.getString("status") : null;
+			if (!isSubscribed(status)) {
+				sDropped.incrementAndGet();
+				return;
+			}
+			target = SIDE_MAIN;
+			queue = lane(laneFor(status));
+			WorkerQueueMetrics.onReply(message);
+		} else {
+			target = SIDE_WORKER;
+			queue = sWorkerQueue;
+			WorkerQueueMetrics.onRequest(message);
+		}
+		// the argument belongs to this context's bridge call; the other side gets its own copy
+		WritableMap copy = Arguments.createMap();
+		copy.merge(message);
+		queue.add(copy);
+		MessageChannelModule reader = sReaders.get(target);
+		if (reader != null) {
+			reader.scheduleDrain();
+		}
+	}
+
+	/**
+	 * Sends a message built natively to the app, in the lane its status belongs to. Returns false
+	 * when nobody is subscribed to it.
+	 */
+	public static boolean postToMain(Map<String, Object> message) {
+		String status = (String) message.get("status");
+		if (!isSubscribed(status)) {
+			sDropped.incrementAndGet();
+			return false;
+		}
+		lane(laneFor(status)).add(Arguments.makeNativeMap(message));
+		wake(SIDE_MAIN);
+		return true;
+	}
+
+	/** Has {@code side} drain soon, for data produced at drain time like controller states. */
+	static void wake(int side) {
+		MessageChannelModule reader = sReaders.get(side);
+		if (reader != null) {
+			reader.scheduleDrain();
+		}
+	}
+
+	static boolean isSubscribed(String topic) {
+		Set<String> topics = sTopics;
+		return topics == null || topic == null || "ok".equals(topic) || "error".equals(topic)
+			|| "callback".equals(topic) || topics.contains(topic);
+	}
+
+	private static int laneFor(String status) {
+		if (status == null) {
+			return LANE_URGENT;
+		}
+		switch (status) {
+			case "state":
+			case "state_patch":
+				return LANE_STATE;
+			case "network_changed":
+			case "end_network_change":
+			case "provider_emit":
+			case "notification":
+				return LANE_EVENTS;
+			default:
+				// replies, worker callbacks, OnLock/onUnlock and hub emits
+				return LANE_URGENT;
+		}
+	}
+
+	/**
+	 * Per queue, "main.<lane>" or "worker": messages queued, messages pending and the largest
+	 * batch drained; plus "dropped", messages no one had subscribed to.
+	 */
+	@ReactMethod
+	public void getStats(Promise p) {
+		WritableMap stats = Arguments.createMap();
+		synchronized (sLanes) {
+			for (int i = 0; i < sLanes.length; i++) {
+				if (sLanes[i] != null) {
+					stats.putMap("main." + LANE_NAMES[i], sLanes[i].getStats());
+				}
+			}
+		}
+		stats.putMap("worker", sWorkerQueue.getStats());
+		stats.putDouble("dropped", sDropped.get());
+		p.resolve(stats);
+	}
+
+	/** See {@link WorkerQueueMetrics#getStats()}. */
+	@ReactMethod
+	public void getWorkerStats(Promise p) {
+		p.resolve(WorkerQueueMetrics.getStats());
+	}
+
+	@Override
+	public void invalidate() {
+		sReaders.compareAndSet(mSide, this, null);
+		mDrainExecutor.shutdown();
+	}
+
+	private static MessageQueue lane(int lane) {
+		synchronized (sLanes) {
+			if (sLanes[lane] == null) {
+				sLanes[lane] = new MessageQueue();
+			}
+			return sLanes[lane];
+		}
+	}
+
+	private void scheduleDrain() {
+		if (mDrainScheduled.compareAndSet(false, true)) {
+			try {
+				mDrainExecutor.execute(mDrain);
+			} catch (RejectedExecutionException e) {
+				// invalidated while a writer still held this reader; the next attach drains
+				mDrainScheduled.set(false);
+			}
+		}
+	}
+
+	private final Runnable mDrain = new Runnable() {
+		@Override
+		public void run() {
+			// cleared first so that a write racing with this drain schedules the next one
+			mDrainScheduled.set(false);
+			if (mAwaitingAck.get()) {
+				// the ack schedules the next drain, with whatever piled up until then
+				return;
+			}
+			WritableArray messages = Arguments.createArray();
+			int count;
+			if (mSide == SIDE_MAIN) {
+				StateStoreModule.flush();
+				count = 0;
+				for (int i = 0; i < LANE_NAMES.length; i++) {
+					count += lane(i).drainTo(messages);
+				}
+			} else {
+				count = sWorkerQueue.drainTo(messages);
+			}
+			if (count == 0) {
+				return;
+			}
+			ReactApplicationContext context = getReactApplicationContext();
+			if (!context.hasActiveCatalystInstance()) {
+				Log.w(TAG, "dropping messages for a torn down context");
+				return;
+			}
+			mAwaitingAck.set(true);
+			context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class).emit(MESSAGES_EVENT, messages);
+		}
+	};
+}
@@ -0,0 +1,23 @@
+package io.paliwallet.nativeModules;
+
+import com.facebook.react.bridge.NativeModule;
+import com.facebook.react.bridge.ReactApplicationContext;
+
+public class MessageChannelPackage extends LazyModulePackage {
+  private final int mSide;
+
+  /** {@code side} is MessageChannelModule.SIDE_MAIN or SIDE_WORKER, the context this package is for. */
+  public MessageChannelPackage(int side) {
+    mSide = side;
+    declare(MessageChannelModule.NAME, MessageChannelModule.class);
+    declare(StateStoreModule.NAME, StateStoreModule.class);
+  }
+
+  @Override
+  protected NativeModule createModule(String name, ReactApplicationContext reactContext) {
+    if (MessageChannelModule.NAME.equals(name)) {
+      return new MessageChannelModule(reactContext, mSide);
+    }
+    return new StateStoreModule(reactContext);
+  }
+}
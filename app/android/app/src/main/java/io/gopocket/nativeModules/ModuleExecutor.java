@@ -0,0 +1,195 @@
+package io.paliwallet.nativeModules;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded pool that runs {@code @ReactMethod} bodies off the shared native-modules thread.
+ * Work beyond the queue limit is rejected instead of piling up, and queue-wait / run time
+ * is recorded per method name.
+ */
+public class ModuleExecutor {
+	private static final String TAG = "ModuleExecutor";
+	private static final String EXECUTOR_BUSY_ERROR_CODE = "EXECUTOR_BUSY";
+	private static final String EXECUTOR_CANCELLED_ERROR_CODE = "EXECUTOR_CANCELLED";
+	private static final String EXECUTOR_TASK_ERROR_CODE = "EXECUTOR_TASK_ERROR";
+
+	private final String mName;
+	private final ThreadPoolExecutor mExecutor;
+	private volatile Runnable mOnTerminated;
+	private final ConcurrentHashMap<String, MethodStats> mStats = new ConcurrentHashMap<>();
+
+	public ModuleExecutor(final String name, int threads, int queueDepth, final int priority) {
+		mName = name;
+		mExecutor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+			new ArrayBlockingQueue<Runnable>(queueDepth), new ThreadFactory() {
+			private final AtomicInteger mCount = new AtomicInteger();
+
+			@Override
+			public Thread newThread(final Runnable r) {
+				return new Thread(new Runnable() {
+					@Override
+					public void run() {
+						android.os.Process.setThreadPriority(priority);
+						r.run();
+					}
+				}, name + "-" + mCount.incrementAndGet());
+			}
+		}, new ThreadPoolExecutor.AbortPolicy()) {
+			@Override
+			protected void terminated() {
+				Runnable onTerminated = mOnTerminated;
+				if (onTerminated != null) {
+					onTerminated.run();
+				}
+			}
+		};
+		mExecutor.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * Runs {@code task} on the pool. {@code promise} is rejected if the queue is full or the
+	 * pool is shut down before the task starts; the task itself is responsible for resolving it.
+	 * {@code promise} may be null for fire-and-forget work.
+	 */
+	public void execute(String method, Promise promise, Runnable task) {
+		MethodStats stats = getStats(method);
+		try {
+			mExecutor.execute(new Task(stats, promise, task));
+		} catch (RejectedExecutionException e) {
+			stats.rejected.incrementAndGet();
+			if (promise == null) {
+				return;
+			}
+			promise.reject(mExecutor.isShutdown() ? EXECUTOR_CANCELLED_ERROR_CODE : EXECUTOR_BUSY_ERROR_CODE,
+				mName + " rejected " + method);
+		}
+	}
+
+	/** Stops the pool, interrupting running work and rejecting every task still queued. */
+	public void shutdown() {
+		List<Runnable> pending = mExecutor.shutdownNow();
+		for (Runnable r : pending) {
+			if (r instanceof Task) {
+				((Task) r).cancel();
+			}
+		}
+	}
+
+	/**
+	 * Stops taking work but lets running and queued tasks finish, then runs {@code onTerminated},
+	 * for modules that must release a resource only once nothing uses it any more.
+	 */
+	public void shutdownGracefully(Runnable onTerminated) {
+		mOnTerminated = onTerminated;
+		mExecutor.shutdown();
+	}
+
+	public WritableMap getMetrics() {
+		WritableMap metrics = Arguments.createMap();
+		for (Map.Entry<String, MethodStats> entry : mStats.entrySet()) {
+			metrics.putMap(entry.getKey(), entry.getValue().toMap());
+		}
+		return metrics;
+	}
+
+	private MethodStats getStats(String method) {
+		MethodStats stats = mStats.get(method);
+		if (stats == null) {
+			stats = new MethodStats();
+			MethodStats prev = mStats.putIfAbsent(method, stats);
+			if (prev != null) {
+				stats = prev;
+			}
+		}
+		return stats;
+	}
+
+	private static class Task implements Runnable {
+		private final MethodStats mStats;
+		private final Promise mPromise;
+		private final Runnable mTask;
+		private final long mEnqueuedAt = SystemClock.elapsedRealtimeNanos();
+
+		Task(MethodStats stats, Promise promise, Runnable task) {
+			mStats = stats;
+			mPromise = promise;
+			mTask = task;
+		}
+
+		@Override
+		public void run() {
+			long start = SystemClock.elapsedRealtimeNanos();
+			try {
+				mTask.run();
+			} catch (Exception e) {
+				Log.e(TAG, "task error: ", e);
+				if (mPromise != null) {
+					mPromise.reject(EXECUTOR_TASK_ERROR_CODE, e);
+				}
+			} finally {
+				mStats.record(start - mEnqueuedAt, SystemClock.elapsedRealtimeNanos() - start);
+			}
+		}
+
+		void cancel() {
+			mStats.cancelled.incrementAndGet();
+			if (mPromise == null) {
+				return;
+			}
+			mPromise.reject(EXECUTOR_CANCELLED_ERROR_CODE, "React context destroyed");
+		}
+	}
+
+	private static class MethodStats {
+		final AtomicLong count = new AtomicLong();
+		final AtomicLong rejected = new AtomicLong();
+		final AtomicLong cancelled = new AtomicLong();
+		final AtomicLong totalWaitNs = new AtomicLong();
+		final AtomicLong maxWaitNs = new AtomicLong();
+		final AtomicLong totalRunNs = new AtomicLong();
+		final AtomicLong maxRunNs = new AtomicLong();
+
+		void record(long waitNs, long runNs) {
+			count.incrementAndGet();
+			totalWaitNs.addAndGet(waitNs);
+			totalRunNs.addAndGet(runNs);
+			updateMax(maxWaitNs, waitNs);
+			updateMax(maxRunNs, runNs);
+		}
+
+		private static void updateMax(AtomicLong max, long value) {
+			long cur;
+			while (value > (cur = max.get()) && !max.compareAndSet(cur, value)) {
+			}
+		}
+
+		WritableMap toMap() {
+			long n = count.get();
+			WritableMap map = Arguments.createMap();
+			map.putDouble("count", n);
+			map.putDouble("rejected", rejected.get());
+			map.putDouble("cancelled", cancelled.get());
+			map.putDouble("avgWaitMs", n == 0 ? 0 : totalWaitNs.get() / 1e6 / n);
+			map.putDouble("maxWaitMs", maxWaitNs.get() / 1e6);
+			map.putDouble("avgRunMs", n == 0 ? 0 : totalRunNs.get() / 1e6 / n);
+			map.putDouble("maxRunMs", maxRunNs.get() / 1e6);
+			return map;
+		}
+	}
+}
@@ -12,6 +12,7 @@ import io.paliwallet.MainApplication;
 import static com.facebook.react.bridge.UiThreadUtil.runOnUiThread;
 
 public class PreventScreenshot extends ReactContextBaseJavaModule {
+  static final String NAME = "PreventScreenshot";
   private static final String PREVENT_SCREENSHOT_ERROR_CODE = "PREVENT_SCREENSHOT_ERROR_CODE";
   private final ReactApplicationContext reactContext;
 
@@ -22,7 +23,7 @@ public class PreventScreenshot extends ReactContextBaseJavaModule {
 
   @Override
   public String getName() {
-    return "PreventScreenshot";
+    return NAME;
   }
 
   @ReactMethod
@@ -1,23 +1,16 @@
 package io.paliwallet.nativeModules;
 
-import com.facebook.react.ReactPackage;
 import com.facebook.react.bridge.NativeModule;
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.uimanager.ViewManager;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.List;
+public class PreventScreenshotPackage extends LazyModulePackage {
 
-public class PreventScreenshotPackage implements ReactPackage {
-
-  @Override
-  public List<ViewManager> createViewManagers(ReactApplicationContext reactContext) {
-    return Collections.emptyList();
+  public PreventScreenshotPackage() {
+    declare(PreventScreenshot.NAME, PreventScreenshot.class);
   }
 
   @Override
-  public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
-   return Arrays.<NativeModule>asList(new PreventScreenshot(reactContext));
+  protected NativeModule createModule(String name, ReactApplicationContext reactContext) {
+    return new PreventScreenshot(reactContext);
   }
 }
@@ -1,101 +1,210 @@
 package io.paliwallet.nativeModules;
 
+import com.facebook.react.bridge.Arguments;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
-import com.snail.antifake.jni.EmulatorDetectUtil;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.core.DeviceEventManagerModule;
 
 import android.content.Context;
-import android.content.Intent;
-import android.content.pm.PackageInfo;
-import android.content.pm.PackageManager;
-import android.content.pm.ResolveInfo;
-import android.os.Build;
-import android.text.TextUtils;
+import android.os.Process;
 import android.util.Base64;
 import android.util.Log;
 
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
-
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import io.paliwallet.BuildConfig;
+import io.paliwallet.utils.ConnectivityMonitor;
 import io.paliwallet.utils.CryptUtil;
-import io.paliwallet.utils.DataConnectionManager;
-import io.paliwallet.utils.DeviceInfoUtils;
+import io.paliwallet.utils.DeviceInfoSnapshot;
 import io.paliwallet.utils.GooglePlayUtils;
+import io.paliwallet.utils.HttpResponseCache;
 import io.paliwallet.utils.NotificationUtils;
+import io.paliwallet.utils.PowerStateMonitor;
+import io.paliwallet.utils.StartupGate;
+import io.paliwallet.utils.StartupTracer;
+import io.paliwallet.utils.StoragePressureMonitor;
 
 public class RNToolsManager extends ReactContextBaseJavaModule {
+	static final String NAME = "RNToolsManager";
+	private static final String CRYPT_PROGRESS_EVENT = "RNToolsManager.cryptProgress";
+	private static final String POWER_STATE_EVENT = "RNToolsManager.powerStateChanged";
+	private static final String STORAGE_PRESSURE_EVENT = "RNToolsManager.storagePressure";
+	private static final String CONNECTIVITY_EVENT = "RNToolsManager.connectivityChanged";
+	private static final String CRYPT_ERROR_CODE = "CRYPT_ERROR";
+	private static final String CRYPT_FILE_ERROR_CODE = "CRYPT_FILE_ERROR";
+	private static final String DEBUG_ONLY_ERROR_CODE = "DEBUG_ONLY";
+	private static final String HTTP_CACHE_ERROR_CODE = "HTTP_CACHE_ERROR";
+	private static final String STARTUP_TRACE_ERROR_CODE = "STARTUP_TRACE_ERROR";
+	private static final int CPU_COUNT = Runtime.getRuntime().availableProcessors();
+
 	private Context mContext;
+	// AES work is CPU bound; package manager / play store lookups mostly wait on binder IPC.
+	private final ModuleExecutor mCryptoExecutor =
+		new ModuleExecutor("RNTools-crypto", CPU_COUNT, 64, Process.THREAD_PRIORITY_DEFAULT);
+	private final ModuleExecutor mIpcExecutor =
+		new ModuleExecutor("RNTools-ipc", 2, 16, Process.THREAD_PRIORITY_BACKGROUND);
+
     public RNToolsManager(ReactApplicationContext reactContext) {
         super(reactContext);
         mContext = reactContext;
+		// Warm the startup fields ahead of ApiClient's first request for them.
+		mIpcExecutor.execute("prepareDeviceInfo", null, new Runnable() {
+			@Override
+			public void run() {
+				DeviceInfoSnapshot.getInstance(mContext).prepare(DeviceInfoSnapshot.STARTUP_FIELDS);
+			}
+		});
+		PowerStateMonitor.getInstance(mContext).addListener(mPowerStateListener);
+		StoragePressureMonitor.getInstance(mContext).addListener(mStorageListener);
+		ConnectivityMonitor.getInstance(mContext).addListener(mConnectivityListener);
     }
 
+	private final PowerStateMonitor.Listener mPowerStateListener = new PowerStateMonitor.Listener() {
+		@Override
+		public void onPowerStateChanged(PowerStateMonitor.PowerState state) {
+			ReactApplicationContext context = getReactApplicationContext();
+			if (!context.hasActiveCatalystInstance()) {
+				return;
+			}
+			context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+				.emit(POWER_STATE_EVENT, state.toMap());
+		}
+	};
+
+	private final StoragePressureMonitor.Listener mStorageListener = new StoragePressureMonitor.Listener() {
+		@Override
+		public void onStoragePressureChanged(int level, long freeBytes, long totalBytes) {
+			ReactApplicationContext context = getReactApplicationContext();
+			if (!context.hasActiveCatalystInstance()) {
+				return;
+			}
+			context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+				.emit(STORAGE_PRESSURE_EVENT, StoragePressureMonitor.getInstance(mContext).toMap());
+		}
+	};
+
+	private final ConnectivityMonitor.Listener mConnectivityListener = new ConnectivityMonitor.Listener() {
+		@Override
+		public void onConnectivityChanged(ConnectivityMonitor.NetworkState state) {
+			ReactApplicationContext context = getReactApplicationContext();
+			if (!context.hasActiveCatalystInstance()) {
+				return;
+			}
+			context.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+				.emit(CONNECTIVITY_EVENT, state.toMap());
+		}
+	};
+
+	@Override
+	public void invalidate() {
+		PowerStateMonitor.getInstance(mContext).removeListener(mPowerStateListener);
+		StoragePressureMonitor.getInstance(mContext).removeListener(mStorageListener);
+		ConnectivityMonitor.getInstance(mContext).removeListener(mConnectivityListener);
+		mCryptoExecutor.shutdown();
+		mIpcExecutor.shutdown();
+		super.invalidate();
+	}
+
     @Override
     public String getName() {
-        return "RNToolsManager";
+        return NAME;
     }
 
-	private String getDeviceInfoSync() {
-		JSONObject deviceInfo = new JSONObject();
-		try {
-			deviceInfo.put("manufacturer", Build.MANUFACTURER);
-			deviceInfo.put("brand", Build.BRAND);
-			deviceInfo.put("model", Build.MODEL);
-			deviceInfo.put("device", Build.DEVICE);
-			deviceInfo.put("product", Build.PRODUCT);
-			deviceInfo.put("sdk_int", Build.VERSION.SDK_INT);
-			deviceInfo.put("net_type", DataConnectionManager.isWifiConnected(mContext) ? "wifi"
-				: (DataConnectionManager.isMobileConnected(mContext) ? "mobile" : "unknown"));
-			deviceInfo.put("lang", DeviceInfoUtils.getCurLanguage());
-			deviceInfo.put("resolution", DeviceInfoUtils.getScreenSize(mContext));
-			deviceInfo.put("density", DeviceInfoUtils.getDeviceDpiInfo(mContext));
-			deviceInfo.put("freeDiskStorage", DeviceInfoUtils.getFreeDiskStorage());
-			deviceInfo.put("batteryLevel", DeviceInfoUtils.getBatteryLevel(mContext));
-			deviceInfo.put("isBatteryCharging", DeviceInfoUtils.isBatteryCharging(mContext));
-			deviceInfo.put("isEmulator", EmulatorDetectUtil.isEmulator(mContext));
-			deviceInfo.put("isAV", DeviceInfoUtils.isAV());
-			if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-				JSONArray abis = new JSONArray(Build.SUPPORTED_ABIS);
-				deviceInfo.put("abis", abis);
-			}
-			PackageManager packageManager = mContext.getPackageManager();
-			List<PackageInfo> packageInfos = packageManager.getInstalledPackages(0);
-			List<String> packageNames = new ArrayList<>();
-			String hostPackageName = mContext.getPackageName();
-			Intent i = new Intent(Intent.ACTION_MAIN);
-			i.addCategory(Intent.CATEGORY_LAUNCHER);
-			for (PackageInfo packageInfo : packageInfos) {
-				if (TextUtils.equals(hostPackageName, packageInfo.packageName)) {
-					continue;
-				}
-				i.setPackage(packageInfo.packageName);
-				List<ResolveInfo> resolveInfos = packageManager.queryIntentActivities(i, 0);
-				if (resolveInfos == null || resolveInfos.isEmpty()) {
-					continue;
-				}
-				packageNames.add(packageInfo.packageName);
+	@ReactMethod
+	public void getDeviceInfo(final Promise p) {
+		final DeviceInfoSnapshot snapshot = DeviceInfoSnapshot.getInstance(mContext);
+		if (snapshot.isPrepared()) {
+			p.resolve(snapshot.toJson());
+			return;
+		}
+		mIpcExecutor.execute("getDeviceInfo", p, new Runnable() {
+			@Override
+			public void run() {
+				p.resolve(snapshot.toJson());
 			}
-			if (packageNames.size() >= 20) {
-			} else {
-				JSONArray packages = new JSONArray(packageNames);
-				deviceInfo.put("pkgs", packages);
+		});
+	}
+
+	/**
+	 * Device info as a map holding only {@code fields} (every field when null), so callers
+	 * do not pay for the launcher package scan or emulator check unless they ask for them.
+	 */
+	@ReactMethod
+	public void getDeviceInfoMap(final ReadableArray fields, final Promise p) {
+		final DeviceInfoSnapshot snapshot = DeviceInfoSnapshot.getInstance(mContext);
+		List<String> selected = null;
+		if (fields != null) {
+			selected = new ArrayList<>(fields.size());
+			for (int i = 0; i < fields.size(); i++) {
+				selected.add(fields.getString(i));
 			}
-			deviceInfo.put("pkgsSize", packageNames.size());
-		} catch (JSONException e) {
-			Log.e("getDeviceInfo", "Error reading device info", e);
 		}
-		return deviceInfo.toString();
+		final List<String> names = selected;
+		if (snapshot.isKnown(names)) {
+			p.resolve(snapshot.toMap(names));
+			return;
+		}
+		mIpcExecutor.execute("getDeviceInfoMap", p, new Runnable() {
+			@Override
+			public void run() {
+				p.resolve(snapshot.toMap(names));
+			}
+		});
 	}
 
 	@ReactMethod
-	public void getDeviceInfo(Promise p) {
-		p.resolve(getDeviceInfoSync());
+	public void getPowerState(Promise p) {
+		p.resolve(PowerStateMonitor.getInstance(mContext).getState().toMap());
+	}
+
+	@ReactMethod
+	public void getStorageState(Promise p) {
+		p.resolve(StoragePressureMonitor.getInstance(mContext).toMap());
+	}
+
+	@ReactMethod
+	public void getConnectivity(Promise p) {
+		p.resolve(ConnectivityMonitor.getInstance(mContext).getState().toMap());
+	}
+
+	@ReactMethod
+	public void getHttpCacheStats(Promise p) {
+		p.resolve(HttpResponseCache.getStats());
+	}
+
+	@ReactMethod
+	public void setHttpCacheTtl(String host, int seconds) {
+		HttpResponseCache.setHostTtl(host, seconds);
+	}
+
+	@ReactMethod
+	public void clearHttpCache(final Promise p) {
+		mIpcExecutor.execute("clearHttpCache", p, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					HttpResponseCache.clear();
+					p.resolve(true);
+				} catch (IOException e) {
+					p.reject(HTTP_CACHE_ERROR_CODE, e);
+				}
+			}
+		});
+	}
+
+	@ReactMethod
+	public void getDeviceInfoCosts(Promise p) {
+		if (!BuildConfig.DEBUG) {
+			p.reject(DEBUG_ONLY_ERROR_CODE, "getDeviceInfoCosts is only available in debug builds");
+			return;
+		}
+		p.resolve(DeviceInfoSnapshot.getInstance(mContext).getFieldCosts());
 	}
 
 	private String encryptSync(byte[] content, String key) {
@@ -109,17 +218,28 @@ public class RNToolsManager extends ReactContextBaseJavaModule {
 	}
 
 	@ReactMethod
-	private void encrypt(String content, String key, Promise p) {
-    	try {
-			p.resolve(encryptSync(content.getBytes("utf-8"), key));
-		} catch (Exception e) {
-    		e.printStackTrace();
-		}
+	private void encrypt(final String content, final String key, final Promise p) {
+		mCryptoExecutor.execute("encrypt", p, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					p.resolve(encryptSync(content.getBytes("utf-8"), key));
+				} catch (Exception e) {
+					Log.e("encrypt", "encrypt error: ", e);
+					p.reject(CRYPT_ERROR_CODE, e);
+				}
+			}
+		});
 	}
 
 	@ReactMethod
-	private void encryptBase64(String content, String key, Promise p) {
-		p.resolve(encryptSync(Base64.decode(content, Base64.NO_WRAP), key));
+	private void encryptBase64(final String content, final String key, final Promise p) {
+		mCryptoExecutor.execute("encryptBase64", p, new Runnable() {
+			@Override
+			public void run() {
+				p.resolve(encryptSync(Base64.decode(content, Base64.NO_WRAP), key));
+			}
+		});
 	}
 
 	private String decryptSync(byte[] content, String key) {
@@ -133,23 +253,97 @@ public class RNToolsManager extends ReactContextBaseJavaModule {
 	}
 
 	@ReactMethod
-	private void decrypt(String content, String key, Promise p) {
-    	try {
-			p.resolve(decryptSync(content.getBytes("utf-8"), key));
-		} catch (Exception e) {
-    		e.printStackTrace();
-		}
+	private void decrypt(final String content, final String key, final Promise p) {
+		mCryptoExecutor.execute("decrypt", p, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					p.resolve(decryptSync(content.getBytes("utf-8"), key));
+				} catch (Exception e) {
+					Log.e("encrypt", "decrypt error: ", e);
+					p.reject(CRYPT_ERROR_CODE, e);
+				}
+			}
+		});
+	}
+
+	@ReactMethod
+	private void decryptBase64(final String content, final String key, final Promise p) {
+		mCryptoExecutor.execute("decryptBase64", p, new Runnable() {
+			@Override
+			public void run() {
+				p.resolve(decryptSync(Base64.decode(content, Base64.NO_WRAP), key));
+			}
+		});
+	}
+
+	private CryptUtil.ProgressListener createProgressListener(final String taskId) {
+		return new CryptUtil.ProgressListener() {
+			private int mLastPercent = -1;
+
+			@Override
+			public void onProgress(long processed, long total) {
+				int percent = total > 0 ? (int) (processed * 100 / total) : 100;
+				if (percent == mLastPercent) {
+					return;
+				}
+				mLastPercent = percent;
+				WritableMap event = Arguments.createMap();
+				event.putString("taskId", taskId);
+				event.putDouble("processed", processed);
+				event.putDouble("total", total);
+				getReactApplicationContext()
+					.getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+					.emit(CRYPT_PROGRESS_EVENT, event);
+			}
+		};
+	}
+
+	@ReactMethod
+	private void encryptFile(final String srcPath, final String dstPath, final String key, final String taskId,
+							 final Promise p) {
+		mCryptoExecutor.execute("encryptFile", p, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					CryptUtil.encryptFile(srcPath, dstPath, key, createProgressListener(taskId));
+					StoragePressureMonitor.getInstance(mContext).checkNow();
+					p.resolve(dstPath);
+				} catch (Exception e) {
+					Log.e("encrypt", "encrypt file error: ", e);
+					p.reject(CRYPT_FILE_ERROR_CODE, e);
+				}
+			}
+		});
 	}
 
 	@ReactMethod
-	private void decryptBase64(String content, String key, Promise p) {
-		p.resolve(decryptSync(Base64.decode(content, Base64.NO_WRAP), key));
+	private void decryptFile(final String srcPath, final String dstPath, final String key, final String taskId,
+							 final Promise p) {
+		mCryptoExecutor.execute("decryptFile", p, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					CryptUtil.decryptFile(srcPath, dstPath, key, createProgressListener(taskId));
+					StoragePressureMonitor.getInstance(mContext).checkNow();
+					p.resolve(dstPath);
+				} catch (Exception e) {
+					Log.e("encrypt", "decrypt file error: ", e);
+					p.reject(CRYPT_FILE_ERROR_CODE, e);
+				}
+			}
+		});
 	}
 
 	@ReactMethod
-	private void supportGooglePlay(Promise p) {
-		boolean support = GooglePlayUtils.isGooglePlayCanResolved(mContext);
-		p.resolve(support);
+	private void supportGooglePlay(final Promise p) {
+		mIpcExecutor.execute("supportGooglePlay", p, new Runnable() {
+			@Override
+			public void run() {
+				boolean support = GooglePlayUtils.isGooglePlayCanResolved(mContext);
+				p.resolve(support);
+			}
+		});
 	}
 
 	@ReactMethod
@@ -159,8 +353,13 @@ public class RNToolsManager extends ReactContextBaseJavaModule {
 	}
 
 	@ReactMethod
-	public void getIsNotificationEnabled(Promise p) {
-		p.resolve(NotificationUtils.isNotificationEnabled(mContext));
+	public void getIsNotificationEnabled(final Promise p) {
+		mIpcExecutor.execute("getIsNotificationEnabled", p, new Runnable() {
+			@Override
+			public void run() {
+				p.resolve(NotificationUtils.isNotificationEnabled(mContext));
+			}
+		});
 	}
 
 	@ReactMethod
@@ -168,4 +367,61 @@ public class RNToolsManager extends ReactContextBaseJavaModule {
 		NotificationUtils.gotoSet(mContext);
 		p.resolve("");
 	}
+
+	/** Resolves once the app's root view has drawn its first content. */
+	@ReactMethod
+	public void awaitFirstFrame(final Promise p) {
+		StartupGate.whenFirstFrame(new Runnable() {
+			@Override
+			public void run() {
+				p.resolve(null);
+			}
+		});
+	}
+
+	@ReactMethod
+	public void markStartup(String name) {
+		StartupGate.mark(name);
+	}
+
+	/** Startup milestones in ms since Application.onCreate. */
+	@ReactMethod
+	public void getStartupTimings(Promise p) {
+		p.resolve(StartupGate.getTimings());
+	}
+
+	/** In-house native modules created so far, per name; see {@link LazyModulePackage}. */
+	@ReactMethod
+	public void getCreatedModules(Promise p) {
+		p.resolve(StartupTracer.getCreatedModules());
+	}
+
+	/** A startup trace span measured in JS, see {@link StartupTracer#addJsSpan}. */
+	@ReactMethod
+	public void addTraceSpan(String name, double startMs, double endMs) {
+		StartupTracer.addJsSpan(name, startMs, endMs);
+	}
+
+	/** Writes the startup trace recorded so far and resolves with the file path. */
+	@ReactMethod
+	public void exportStartupTrace(final Promise p) {
+		mIpcExecutor.execute("exportStartupTrace", p, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					p.resolve(StartupTracer.export());
+				} catch (IOException e) {
+					p.reject(STARTUP_TRACE_ERROR_CODE, e);
+				}
+			}
+		});
+	}
+
+	@ReactMethod
+	public void getExecutorMetrics(Promise p) {
+		WritableMap metrics = Arguments.createMap();
+		metrics.putMap("crypto", mCryptoExecutor.getMetrics());
+		metrics.putMap("ipc", mIpcExecutor.getMetrics());
+		p.resolve(metrics);
+	}
 }
@@ -1,29 +1,17 @@
 package io.paliwallet.nativeModules;
 
-import com.facebook.react.ReactPackage;
 import com.facebook.react.bridge.NativeModule;
 import com.facebook.react.bridge.ReactApplicationContext;
-import com.facebook.react.uimanager.ViewManager;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+public class RNToolsPackage extends LazyModulePackage {
 
-public class RNToolsPackage implements ReactPackage {
-
-
-    @Override
-    public List<ViewManager> createViewManagers(ReactApplicationContext reactContext) {
-        return Collections.emptyList();
+    public RNToolsPackage() {
+        declare(RNToolsManager.NAME, RNToolsManager.class);
     }
 
     @Override
-    public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
-        List<NativeModule> modules = new ArrayList<>();
-
-        modules.add(new RNToolsManager(reactContext));
-
-        return modules;
+    protected NativeModule createModule(String name, ReactApplicationContext reactContext) {
+        return new RNToolsManager(reactContext);
     }
 
 }
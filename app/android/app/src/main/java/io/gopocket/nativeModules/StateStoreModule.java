@@ -0,0 +1,177 @@
+package io.paliwallet.nativeModules;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.paliwallet.utils.JsonPatch;
+
+/**
+ * Last published state of every engine controller, keyed by controller name. The worker
+ * publishes states here instead of posting them; the app gets a "state" message with the full
+ * state the first time and on resync, and after that a "state_patch" message with the JSON Patch
+ * from the version it has, both in the state lane of {@link MessageChannelModule}. Publishing
+ * only records the state; the diff is taken when the app's channel drains, so states published
+ * while the app was busy are coalesced into one patch per controller. Registered in both
+ * contexts: the worker publishes, the app asks for resyncs.
+ */
+public class StateStoreModule extends ReactContextBaseJavaModule {
+	static final String NAME = "PaliStateStore";
+	// past this many operations the full state is cheaper to send and to apply
+	private static final int MAX_PATCH_OPS = 2000;
+
+	private static class Entry {
+		Map<String, Object> state;
+		// what the app has, shallow: nested values are replaced on publish, never mutated
+		Map<String, Object> sent;
+		boolean dirty;
+		int version;
+		long published;
+		long coalesced;
+		long updates;
+		long fullSends;
+		long ops;
+	}
+
+	private static final Map<String, Entry> sEntries = new HashMap<>();
+
+	StateStoreModule(ReactApplicationContext context) {
+		super(context);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	/** {@code overwrite} false: {@code state} only carries the top-level keys that changed. */
+	@ReactMethod
+	public void publish(String key, ReadableMap state, boolean overwrite) {
+		Map<String, Object> next = state.toHashMap();
+		synchronized (sEntries) {
+			Entry entry = sEntries.get(key);
+			if (entry == null) {
+				entry = new Entry();
+				entry.state = next;
+				sEntries.put(key, entry);
+			} else if (overwrite) {
+				entry.state = next;
+			} else {
+				entry.state.putAll(next);
+			}
+			entry.published++;
+			if (entry.dirty) {
+				entry.coalesced++;
+			}
+			entry.dirty = true;
+		}
+		MessageChannelModule.wake(MessageChannelModule.SIDE_MAIN);
+	}
+
+	/** Sends the app what changed since its version, for every controller published since. */
+	static void flush() {
+		if (!MessageChannelModule.isSubscribed("state")) {
+			return;
+		}
+		synchronized (sEntries) {
+			for (Map.Entry<String, Entry> item : sEntries.entrySet()) {
+				Entry entry = item.getValue();
+				if (!entry.dirty) {
+					continue;
+				}
+				if (entry.sent == null) {
+					sendFull(item.getKey(), entry);
+					continue;
+				}
+				entry.dirty = false;
+				List<Map<String, Object>> ops = new ArrayList<>();
+				JsonPatch.diff("", entry.sent, entry.state, ops);
+				if (ops.isEmpty()) {
+					continue;
+				}
+				if (ops.size() > MAX_PATCH_OPS) {
+					sendFull(item.getKey(), entry);
+					continue;
+				}
+				entry.version++;
+				entry.sent = new HashMap<>(entry.state);
+				Map<String, Object> value = new HashMap<>();
+				value.put("key", item.getKey());
+				value.put("version", entry.version);
+				value.put("ops", ops);
+				entry.updates++;
+				entry.ops += ops.size();
+				MessageChannelModule.postToMain(message("state_patch", value));
+			}
+		}
+	}
+
+	/** Sends the full state of {@code key}, or of every controller when it is null, to the app. */
+	@ReactMethod
+	public void resync(String key) {
+		synchronized (sEntries) {
+			if (key != null) {
+				Entry entry = sEntries.get(key);
+				if (entry != null) {
+					sendFull(key, entry);
+				}
+				return;
+			}
+			for (Map.Entry<String, Entry> entry : sEntries.entrySet()) {
+				sendFull(entry.getKey(), entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Per controller: version, publishes, publishes coalesced into a later patch, patch updates,
+	 * full sends and patch operations.
+	 */
+	@ReactMethod
+	public void getStats(Promise p) {
+		WritableMap stats = Arguments.createMap();
+		synchronized (sEntries) {
+			for (Map.Entry<String, Entry> item : sEntries.entrySet()) {
+				Entry entry = item.getValue();
+				WritableMap map = Arguments.createMap();
+				map.putInt("version", entry.version);
+				map.putDouble("published", entry.published);
+				map.putDouble("coalesced", entry.coalesced);
+				map.putDouble("updates", entry.updates);
+				map.putDouble("fullSends", entry.fullSends);
+				map.putDouble("ops", entry.ops);
+				stats.putMap(item.getKey(), map);
+			}
+		}
+		p.resolve(stats);
+	}
+
+	private static void sendFull(String key, Entry entry) {
+		entry.version++;
+		entry.sent = new HashMap<>(entry.state);
+		entry.dirty = false;
+		Map<String, Object> value = new HashMap<>();
+		value.put("key", key);
+		value.put("state", entry.sent);
+		value.put("overwrite", true);
+		value.put("version", entry.version);
+		entry.fullSends++;
+		MessageChannelModule.postToMain(message("state", value));
+	}
+
+	private static Map<String, Object> message(String status, Map<String, Object> value) {
+		Map<String, Object> message = new HashMap<>();
+		message.put("status", status);
+		message.put("value", value);
+		return message;
+	}
+}
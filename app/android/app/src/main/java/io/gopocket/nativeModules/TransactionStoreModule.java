@@ -0,0 +1,175 @@
+package io.paliwallet.nativeModules;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Process;
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read side of the TRANSACTIONS table that core/src/transaction/Sqlite.ts writes through
+ * react-native-sqlite-storage, for the queries that would otherwise return a wallet's whole
+ * history at once. Rows come back in pages of at most {@link #MAX_PAGE_SIZE}, newest first, with
+ * keyset pagination on (address, tx_chainId, time, id): a page ends with the key to pass as
+ * {@code after} for the next one, so every page is an index range scan and the native side holds
+ * one page at a time however long the history is. Rows without a time come last, as they do in
+ * {@code ORDER BY time DESC}; their key carries a null time.
+ */
+public class TransactionStoreModule extends ReactContextBaseJavaModule {
+	static final String NAME = "PaliTxStore";
+	private static final String TAG = "TransactionStore";
+	private static final String TX_STORE_ERROR_CODE = "TX_STORE_ERROR";
+	// same file as Sqlite.ts opens, in the app's default database directory
+	private static final String DATABASE = "PaliWallet.db";
+	private static final int MAX_PAGE_SIZE = 200;
+
+	private final ModuleExecutor mExecutor =
+		new ModuleExecutor("TxStore", 1, 16, Process.THREAD_PRIORITY_DEFAULT);
+	// only touched on mExecutor's single thread, and once it has terminated
+	private SQLiteDatabase mDb;
+
+	TransactionStoreModule(ReactApplicationContext context) {
+		super(context);
+	}
+
+	@Override
+	public String getName() {
+		return NAME;
+	}
+
+	@Override
+	public void invalidate() {
+		// queries already queued still run; the database closes once the last one is done
+		mExecutor.shutdownGracefully(new Runnable() {
+			@Override
+			public void run() {
+				if (mDb != null) {
+					mDb.close();
+					mDb = null;
+				}
+			}
+		});
+		super.invalidate();
+	}
+
+	/**
+	 * One page of transactions of {@code address} on {@code chainId}, newest first. {@code query}
+	 * holds address, type (ChainType), chainId, txTypes (array of txType values), limit (capped
+	 * at MAX_PAGE_SIZE) and, past the first page, after: the previous page's {@code next}.
+	 * Resolves with {rows, next}; rows carry the table's columns as stored, next is null on the
+	 * last page.
+	 */
+	@ReactMethod
+	public void queryPage(final ReadableMap query, final Promise p) {
+		mExecutor.execute("queryPage", p, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					p.resolve(queryPage(query));
+				} catch (Exception e) {
+					Log.e(TAG, "queryPage error: ", e);
+					p.reject(TX_STORE_ERROR_CODE, e);
+				}
+			}
+		});
+	}
+
+	private WritableMap queryPage(ReadableMap query) {
+		int limit = Math.max(1, Math.min(MAX_PAGE_SIZE, query.getInt("limit")));
+		List<String> args = new ArrayList<>();
+		StringBuilder sql = new StringBuilder("SELECT * FROM TRANSACTIONS WHERE address=? AND tx_chainId=? AND type=?");
+		args.add(query.getString("address"));
+		args.add(query.getString("chainId"));
+		args.add(String.valueOf(query.getInt("type")));
+		ReadableArray txTypes = query.getArray("txTypes");
+		sql.append(" AND txType IN (");
+		for (int i = 0; i < txTypes.size(); i++) {
+			sql.append(i == 0 ? "?" : ",?");
+			args.add(txTypes.getString(i));
+		}
+		sql.append(')');
+		if (query.hasKey("after") && !query.isNull("after")) {
+			ReadableMap after = query.getMap("after");
+			if (after.isNull("time")) {
+				// already into the rows without a time
+				sql.append(" AND time IS NULL AND id<?");
+			} else {
+				String time = String.valueOf((long) after.getDouble("time"));
+				sql.append(" AND (time<? OR (time=? AND id<?) OR time IS NULL)");
+				args.add(time);
+				args.add(time);
+			}
+			args.add(String.valueOf((long) after.getDouble("id")));
+		}
+		sql.append(" ORDER BY time DESC, id DESC LIMIT ").append(limit);
+
+		WritableArray rows = Arguments.createArray();
+		WritableMap next = null;
+		try (Cursor cursor = database().rawQuery(sql.toString(), args.toArray(new String[0]))) {
+			int timeColumn = cursor.getColumnIndexOrThrow("time");
+			int idColumn = cursor.getColumnIndexOrThrow("id");
+			int count = 0;
+			while (cursor.moveToNext()) {
+				rows.pushMap(toMap(cursor));
+				if (++count == limit) {
+					// a full page: there may be more
+					next = Arguments.createMap();
+					if (cursor.isNull(timeColumn)) {
+						next.putNull("time");
+					} else {
+						next.putDouble("time", cursor.getLong(timeColumn));
+					}
+					next.putDouble("id", cursor.getLong(idColumn));
+				}
+			}
+		}
+		WritableMap page = Arguments.createMap();
+		page.putArray("rows", rows);
+		page.putMap("next", next);
+		return page;
+	}
+
+	private SQLiteDatabase database() {
+		if (mDb == null) {
+			File path = getReactApplicationContext().getDatabasePath(DATABASE);
+			// Sqlite.ts owns the schema and every write; this connection only reads
+			mDb = SQLiteDatabase.openDatabase(path.getPath(), null, SQLiteDatabase.OPEN_READONLY);
+		}
+		return mDb;
+	}
+
+	private static WritableMap toMap(Cursor cursor) {
+		WritableMap row = Arguments.createMap();
+		for (int i = 0; i < cursor.getColumnCount(); i++) {
+			String column = cursor.getColumnName(i);
+			switch (cursor.getType(i)) {
+				case Cursor.FIELD_TYPE_NULL:
+					row.putNull(column);
+					break;
+				case Cursor.FIELD_TYPE_INTEGER:
+					row.putDouble(column, cursor.getLong(i));
+					break;
+				case Cursor.FIELD_TYPE_FLOAT:
+					row.putDouble(column, cursor.getDouble(i));
+					break;
+				default:
+					row.putString(column, cursor.getString(i));
+					break;
+			}
+		}
+		return row;
+	}
+}
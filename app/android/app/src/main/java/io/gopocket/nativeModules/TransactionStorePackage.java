@@ -0,0 +1,16 @@
+package io.paliwallet.nativeModules;
+
+import com.facebook.react.bridge.NativeModule;
+import com.facebook.react.bridge.ReactApplicationContext;
+
+public class TransactionStorePackage extends LazyModulePackage {
+
+  public TransactionStorePackage() {
+    declare(TransactionStoreModule.NAME, TransactionStoreModule.class);
+  }
+
+  @Override
+  protected NativeModule createModule(String name, ReactApplicationContext reactContext) {
+    return new TransactionStoreModule(reactContext);
+  }
+}
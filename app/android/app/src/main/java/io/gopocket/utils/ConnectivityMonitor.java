@@ -0,0 +1,248 @@
+package io.paliwallet.utils;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.net.NetworkInfo;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Current default network: transport, metered flag and the link bandwidth estimate. Kept up
+ * to date by a default NetworkCallback (API 24+, CONNECTIVITY_ACTION before that) instead of
+ * ConnectivityManager lookups per call. Listeners are told at most once per
+ * {@link #COALESCE_MS}, and only when connectivity, transport, metering or the bandwidth class
+ * changed; capability updates carrying a slightly different estimate arrive constantly.
+ */
+public class ConnectivityMonitor {
+	private static final String TAG = "ConnectivityMonitor";
+	private static final long COALESCE_MS = 1000;
+	private static final int SLOW_LINK_KBPS = 150;
+	private static final int FAST_LINK_KBPS = 2000;
+
+	public static final String TRANSPORT_NONE = "none";
+	public static final String TRANSPORT_WIFI = "wifi";
+	public static final String TRANSPORT_CELLULAR = "cellular";
+	public static final String TRANSPORT_ETHERNET = "ethernet";
+	public static final String TRANSPORT_OTHER = "other";
+
+	public interface Listener {
+		void onConnectivityChanged(NetworkState state);
+	}
+
+	public static class NetworkState {
+		public final boolean connected;
+		public final String transport;
+		public final boolean metered;
+		// -1 when unknown
+		public final int downstreamKbps;
+		public final int upstreamKbps;
+
+		NetworkState(boolean connected, String transport, boolean metered, int downstreamKbps, int upstreamKbps) {
+			this.connected = connected;
+			this.transport = transport;
+			this.metered = metered;
+			this.downstreamKbps = downstreamKbps;
+			this.upstreamKbps = upstreamKbps;
+		}
+
+		/** "slow", "moderate", "fast", or "unknown" without an estimate. */
+		public String getLinkClass() {
+			if (downstreamKbps < 0) {
+				return "unknown";
+			}
+			if (downstreamKbps < SLOW_LINK_KBPS) {
+				return "slow";
+			}
+			return downstreamKbps < FAST_LINK_KBPS ? "moderate" : "fast";
+		}
+
+		boolean sameAs(NetworkState other) {
+			return other != null && connected == other.connected && transport.equals(other.transport)
+				&& metered == other.metered && getLinkClass().equals(other.getLinkClass());
+		}
+
+		public WritableMap toMap() {
+			WritableMap map = Arguments.createMap();
+			map.putBoolean("isConnected", connected);
+			map.putString("transport", transport);
+			map.putBoolean("isMetered", metered);
+			map.putInt("downstreamKbps", downstreamKbps);
+			map.putInt("upstreamKbps", upstreamKbps);
+			map.putString("linkClass", getLinkClass());
+			return map;
+		}
+	}
+
+	private static final NetworkState DISCONNECTED = new NetworkState(false, TRANSPORT_NONE, false, -1, -1);
+
+	private static ConnectivityMonitor sInstance;
+
+	private final ConnectivityManager mConnectivityManager;
+	private final Handler mHandler;
+	private final CopyOnWriteArrayList<Listener> mListeners = new CopyOnWriteArrayList<>();
+	private volatile NetworkState mState;
+	// last state handed to listeners; only touched on mHandler
+	private NetworkState mDispatched;
+	private boolean mDispatchPending;
+
+	public static synchronized ConnectivityMonitor getInstance(Context context) {
+		if (sInstance == null) {
+			sInstance = new ConnectivityMonitor(context.getApplicationContext());
+		}
+		return sInstance;
+	}
+
+	private ConnectivityMonitor(Context context) {
+		mConnectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+		HandlerThread thread = new HandlerThread(TAG, android.os.Process.THREAD_PRIORITY_BACKGROUND);
+		thread.start();
+		mHandler = new Handler(thread.getLooper());
+
+		mState = readActiveNetwork();
+		mDispatched = mState;
+		if (mConnectivityManager == null) {
+			return;
+		}
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+			mConnectivityManager.registerDefaultNetworkCallback(mNetworkCallback, mHandler);
+		} else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+			mConnectivityManager.registerDefaultNetworkCallback(mNetworkCallback);
+		} else {
+			context.registerReceiver(new BroadcastReceiver() {
+				@Override
+				public void onReceive(Context context, Intent intent) {
+					update(readActiveNetwork());
+				}
+			}, new IntentFilter(ConnectivityManager.CONNECTIVITY_ACTION), null, mHandler);
+		}
+	}
+
+	public NetworkState getState() {
+		return mState;
+	}
+
+	public void addListener(Listener listener) {
+		mListeners.addIfAbsent(listener);
+	}
+
+	public void removeListener(Listener listener) {
+		mListeners.remove(listener);
+	}
+
+	private final ConnectivityManager.NetworkCallback mNetworkCallback = new ConnectivityManager.NetworkCallback() {
+		// on API 24/25 a switch of the default network can come only as onAvailable
+		@Override
+		public void onAvailable(Network network) {
+			try {
+				update(fromCapabilities(mConnectivityManager.getNetworkCapabilities(network)));
+			} catch (Exception e) {
+				update(readActiveNetwork());
+			}
+		}
+
+		@Override
+		public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+			update(fromCapabilities(capabilities));
+		}
+
+		@Override
+		public void onLost(Network network) {
+			update(DISCONNECTED);
+		}
+	};
+
+	private void update(NetworkState state) {
+		mState = state;
+		// callbacks arrive on the ConnectivityThread before API 26, so hop onto mHandler
+		mHandler.post(mSchedule);
+	}
+
+	private final Runnable mSchedule = new Runnable() {
+		@Override
+		public void run() {
+			if (!mDispatchPending) {
+				mDispatchPending = true;
+				mHandler.postDelayed(mDispatch, COALESCE_MS);
+			}
+		}
+	};
+
+	private final Runnable mDispatch = new Runnable() {
+		@Override
+		public void run() {
+			mDispatchPending = false;
+			NetworkState state = mState;
+			if (state.sameAs(mDispatched)) {
+				return;
+			}
+			mDispatched = state;
+			for (Listener listener : mListeners) {
+				listener.onConnectivityChanged(state);
+			}
+		}
+	};
+
+	private NetworkState readActiveNetwork() {
+		if (mConnectivityManager == null) {
+			return DISCONNECTED;
+		}
+		try {
+			if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+				Network network = mConnectivityManager.getActiveNetwork();
+				return network == null ? DISCONNECTED
+					: fromCapabilities(mConnectivityManager.getNetworkCapabilities(network));
+			}
+			NetworkInfo info = mConnectivityManager.getActiveNetworkInfo();
+			if (info == null || !info.isConnected()) {
+				return DISCONNECTED;
+			}
+			String transport;
+			switch (info.getType()) {
+				case ConnectivityManager.TYPE_WIFI:
+					transport = TRANSPORT_WIFI;
+					break;
+				case ConnectivityManager.TYPE_MOBILE:
+					transport = TRANSPORT_CELLULAR;
+					break;
+				case ConnectivityManager.TYPE_ETHERNET:
+					transport = TRANSPORT_ETHERNET;
+					break;
+				default:
+					transport = TRANSPORT_OTHER;
+			}
+			return new NetworkState(true, transport, mConnectivityManager.isActiveNetworkMetered(), -1, -1);
+		} catch (Exception e) {
+			// getNetworkCapabilities can throw SecurityException on some Android 11 builds
+			return DISCONNECTED;
+		}
+	}
+
+	private static NetworkState fromCapabilities(NetworkCapabilities capabilities) {
+		if (capabilities == null) {
+			return DISCONNECTED;
+		}
+		String transport = TRANSPORT_OTHER;
+		if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)) {
+			transport = TRANSPORT_WIFI;
+		} else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)) {
+			transport = TRANSPORT_CELLULAR;
+		} else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET)) {
+			transport = TRANSPORT_ETHERNET;
+		}
+		boolean connected = capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_INTERNET);
+		boolean metered = !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED);
+		return new NetworkState(connected, transport, metered,
+			capabilities.getLinkDownstreamBandwidthKbps(), capabilities.getLinkUpstreamBandwidthKbps());
+	}
+}
@@ -1,14 +1,25 @@
-
 package io.paliwallet.utils;
 
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.GeneralSecurityException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
@@ -16,33 +27,128 @@ public class CryptUtil {
 
     public static final String AES_ECB = "AES/ECB/PKCS5Padding";
     public static final String AES_CBC = "AES/CBC/PKCS5Padding";
+    /**
+     * Authenticated mode. Output is {@link #GCM_MAGIC}, a version byte, a fill count with that
+     * many zero bytes, a 12 byte nonce and the ciphertext with its 16 byte tag. The fill keeps the
+     * total length off a multiple of 16, which CBC and ECB output always is, so no legacy blob
+     * can pass for GCM and a GCM blob that fails its tag check is rejected outright.
+     */
+    public static final String AES_GCM = "AES/GCM/NoPadding";
+
+    private static final byte[] GCM_MAGIC = {'P', 'W', 'G'};
+    private static final byte GCM_VERSION = 2;
+    // magic, version, fill count
+    private static final int GCM_PREFIX_LENGTH = GCM_MAGIC.length + 2;
+    private static final int GCM_MAX_FILL = 1;
+    private static final int GCM_NONCE_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final int GCM_TAG_LENGTH = GCM_TAG_BITS / 8;
+
+    private static final int IV_LENGTH = 16;
+    private static final int STREAM_CHUNK_SIZE = 64 * 1024;
+
+    public interface ProgressListener {
+        void onProgress(long processed, long total);
+    }
+
+    /**
+     * Cipher.getInstance does a provider lookup on every call, so each thread keeps one
+     * instance per algorithm. A Cipher is not thread safe, hence the ThreadLocal.
+     */
+    private static final ThreadLocal<Map<String, Cipher>> sCiphers = new ThreadLocal<Map<String, Cipher>>() {
+        @Override
+        protected Map<String, Cipher> initialValue() {
+            return new HashMap<>(4);
+        }
+    };
+
+    private static final SecureRandom sRandom = new SecureRandom();
+
+    static Cipher obtainCipher(String algo) throws NoSuchAlgorithmException, NoSuchPaddingException {
+        Map<String, Cipher> ciphers = sCiphers.get();
+        Cipher cipher = ciphers.get(algo);
+        if (cipher == null) {
+            cipher = Cipher.getInstance(algo);
+            ciphers.put(algo, cipher);
+        }
+        return cipher;
+    }
 
 	public static byte[] decrypt(byte[] content, String key)
 		throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
 		IllegalBlockSizeException, BadPaddingException, InvalidAlgorithmParameterException {
-		return decrypt(content, key, AES_CBC);
+		// CBC output can never pass the GCM check, so a failed tag is never retried as CBC
+		return decrypt(content, key, isGcmFormat(content, 0, content.length) ? AES_GCM : AES_CBC);
 	}
 
+    /**
+     * Whether the range is a whole AES-GCM blob written by {@link #encrypt}: header, fill and a
+     * length that is not a multiple of the AES block size. Only the header bytes are read.
+     */
+    public static boolean isGcmFormat(byte[] content, int offset, int length) {
+        if (length % IV_LENGTH == 0 || length < GCM_PREFIX_LENGTH + GCM_NONCE_LENGTH + GCM_TAG_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < GCM_MAGIC.length; i++) {
+            if (content[offset + i] != GCM_MAGIC[i]) {
+                return false;
+            }
+        }
+        if (content[offset + GCM_MAGIC.length] != GCM_VERSION) {
+            return false;
+        }
+        int fill = content[offset + GCM_PREFIX_LENGTH - 1];
+        int plainLength = length - GCM_PREFIX_LENGTH - fill - GCM_NONCE_LENGTH - GCM_TAG_LENGTH;
+        if (fill < 0 || fill > GCM_MAX_FILL || plainLength < 0 || fill != gcmFill(plainLength)) {
+            return false;
+        }
+        for (int i = 0; i < fill; i++) {
+            if (content[offset + GCM_PREFIX_LENGTH + i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Zero bytes needed after the prefix so a GCM blob of {@code length} plaintext bytes is not block aligned. */
+    private static int gcmFill(int length) {
+        return (GCM_PREFIX_LENGTH + GCM_NONCE_LENGTH + length + GCM_TAG_LENGTH) % IV_LENGTH == 0 ? 1 : 0;
+    }
+
     public static byte[] decrypt(byte[] content, String key, String algo)
             throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
             IllegalBlockSizeException, BadPaddingException, InvalidAlgorithmParameterException {
-        Cipher cipherEnc = Cipher.getInstance(algo);
+        return decrypt(content, 0, content.length, key, algo);
+    }
+
+    /**
+     * Decrypts {@code length} bytes of {@code content} starting at {@code offset}. For CBC the
+     * IV is read in place from the head of the range, so neither the IV nor the payload is copied.
+     */
+    public static byte[] decrypt(byte[] content, int offset, int length, String key, String algo)
+            throws NoSuchAlgorithmException, NoSuchPaddingException, InvalidKeyException,
+            IllegalBlockSizeException, BadPaddingException, InvalidAlgorithmParameterException {
+        Cipher cipherEnc = obtainCipher(algo);
         SecretKeySpec keySpec = new SecretKeySpec(key.getBytes(), "AES");
         if (AES_ECB.equals(algo)) {
             cipherEnc.init(Cipher.DECRYPT_MODE, keySpec);
-            return cipherEnc.doFinal(content);
+            return cipherEnc.doFinal(content, offset, length);
+        } else if (AES_GCM.equals(algo)) {
+            if (!isGcmFormat(content, offset, length)) {
+                throw new IllegalBlockSizeException("crypted data header error");
+            }
+            int nonceOffset = offset + GCM_PREFIX_LENGTH + content[offset + GCM_PREFIX_LENGTH - 1];
+            cipherEnc.init(Cipher.DECRYPT_MODE, keySpec,
+                new GCMParameterSpec(GCM_TAG_BITS, content, nonceOffset, GCM_NONCE_LENGTH));
+            int dataOffset = nonceOffset + GCM_NONCE_LENGTH;
+            return cipherEnc.doFinal(content, dataOffset, length - (dataOffset - offset));
         } else {
-            if (content.length < 16) {
+            if (length < IV_LENGTH) {
                 throw new IllegalBlockSizeException("crypted data size error");
             }
-            byte[] ivParam = new byte[16];
-            System.arraycopy(content, 0, ivParam, 0, ivParam.length);
-            IvParameterSpec iv = new IvParameterSpec(ivParam);
+            IvParameterSpec iv = new IvParameterSpec(content, offset, IV_LENGTH);
             cipherEnc.init(Cipher.DECRYPT_MODE, keySpec, iv);
-
-            byte[] data = new byte[content.length - ivParam.length];
-            System.arraycopy(content, ivParam.length, data, 0, content.length - ivParam.length);
-            return cipherEnc.doFinal(data);
+            return cipherEnc.doFinal(content, offset + IV_LENGTH, length - IV_LENGTH);
         }
     }
 
@@ -56,18 +162,201 @@ public class CryptUtil {
             throws NoSuchPaddingException, NoSuchAlgorithmException,
             InvalidAlgorithmParameterException,
             InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
-        Cipher cipherEnc = Cipher.getInstance(algo);
+        return encrypt(content, 0, content.length, key, algo);
+    }
+
+    /**
+     * Encrypts {@code length} bytes of {@code content} starting at {@code offset}. For CBC the
+     * ciphertext is written straight after the IV in the returned array.
+     */
+    public static byte[] encrypt(byte[] content, int offset, int length, String key, String algo)
+            throws NoSuchPaddingException, NoSuchAlgorithmException,
+            InvalidAlgorithmParameterException,
+            InvalidKeyException, BadPaddingException, IllegalBlockSizeException {
+        Cipher cipherEnc = obtainCipher(algo);
+        byte[] header = initEncrypt(cipherEnc, new SecretKeySpec(key.getBytes(), "AES"), algo, length);
+        if (header == null) {
+            return cipherEnc.doFinal(content, offset, length);
+        }
+        byte[] ret = new byte[header.length + cipherEnc.getOutputSize(length)];
+        System.arraycopy(header, 0, ret, 0, header.length);
+        int written;
+        try {
+            written = cipherEnc.doFinal(content, offset, length, ret, header.length);
+        } catch (ShortBufferException e) {
+            throw new IllegalBlockSizeException(e.getMessage());
+        }
+        if (header.length + written != ret.length) {
+            return Arrays.copyOf(ret, header.length + written);
+        }
+        return ret;
+    }
+
+    /**
+     * AES/CBC with a raw key and a caller supplied IV; the IV is not prefixed to the output.
+     * Used for keys that come from {@link KeyDerivationCache} rather than a key string.
+     */
+    public static byte[] encryptWithIv(byte[] content, byte[] key, byte[] iv) throws GeneralSecurityException {
+        Cipher cipherEnc = obtainCipher(AES_CBC);
+        cipherEnc.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+        return cipherEnc.doFinal(content);
+    }
+
+    public static byte[] decryptWithIv(byte[] content, byte[] key, byte[] iv) throws GeneralSecurityException {
+        Cipher cipherEnc = obtainCipher(AES_CBC);
+        cipherEnc.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, "AES"), new IvParameterSpec(iv));
+        return cipherEnc.doFinal(content);
+    }
+
+    /**
+     * Inits {@code cipher} for encryption and returns the bytes that must precede the
+     * ciphertext of {@code length} bytes: the IV for CBC, header, fill and nonce for GCM, or
+     * null for ECB.
+     */
+    private static byte[] initEncrypt(Cipher cipher, SecretKeySpec keySpec, String algo, int length)
+            throws InvalidKeyException, InvalidAlgorithmParameterException {
+        if (AES_ECB.equals(algo)) {
+            cipher.init(Cipher.ENCRYPT_MODE, keySpec);
+            return null;
+        } else if (AES_GCM.equals(algo)) {
+            int fill = gcmFill(length);
+            byte[] header = new byte[GCM_PREFIX_LENGTH + fill + GCM_NONCE_LENGTH];
+            System.arraycopy(GCM_MAGIC, 0, header, 0, GCM_MAGIC.length);
+            header[GCM_MAGIC.length] = GCM_VERSION;
+            header[GCM_PREFIX_LENGTH - 1] = (byte) fill;
+            byte[] nonce = new byte[GCM_NONCE_LENGTH];
+            sRandom.nextBytes(nonce);
+            System.arraycopy(nonce, 0, header, GCM_PREFIX_LENGTH + fill, GCM_NONCE_LENGTH);
+            cipher.init(Cipher.ENCRYPT_MODE, keySpec, new GCMParameterSpec(GCM_TAG_BITS, nonce));
+            return header;
+        } else {
+            cipher.init(Cipher.ENCRYPT_MODE, keySpec);
+            return cipher.getIV();
+        }
+    }
+
+    /** Upper bound of the bytes {@link #encrypt(ByteBuffer, ByteBuffer, String, String)} writes. */
+    public static int getEncryptedSize(int length, String algo) {
+        if (AES_GCM.equals(algo)) {
+            return GCM_PREFIX_LENGTH + gcmFill(length) + GCM_NONCE_LENGTH + length + GCM_TAG_LENGTH;
+        }
+        int padded = (length / IV_LENGTH + 1) * IV_LENGTH;
+        return AES_ECB.equals(algo) ? padded : IV_LENGTH + padded;
+    }
+
+    /**
+     * Encrypts the remaining bytes of {@code in} into {@code out}, which may be a direct buffer.
+     * Both positions are advanced; returns the number of bytes written.
+     */
+    public static int encrypt(ByteBuffer in, ByteBuffer out, String key, String algo)
+            throws GeneralSecurityException {
+        Cipher cipherEnc = obtainCipher(algo);
+        byte[] header = initEncrypt(cipherEnc, new SecretKeySpec(key.getBytes(), "AES"), algo, in.remaining());
+        int headerLength = header == null ? 0 : header.length;
+        if (out.remaining() < headerLength + cipherEnc.getOutputSize(in.remaining())) {
+            throw new ShortBufferException("output buffer too small");
+        }
+        if (header != null) {
+            out.put(header);
+        }
+        return headerLength + cipherEnc.doFinal(in, out);
+    }
+
+    /**
+     * Decrypts the remaining bytes of {@code in} into {@code out}, which may be a direct buffer.
+     * Both positions are advanced; returns the number of bytes written.
+     */
+    public static int decrypt(ByteBuffer in, ByteBuffer out, String key, String algo)
+            throws GeneralSecurityException {
+        Cipher cipherEnc = obtainCipher(algo);
         SecretKeySpec keySpec = new SecretKeySpec(key.getBytes(), "AES");
-        cipherEnc.init(Cipher.ENCRYPT_MODE, keySpec);
-        byte[] data = cipherEnc.doFinal(content);
         if (AES_ECB.equals(algo)) {
-            return data;
+            cipherEnc.init(Cipher.DECRYPT_MODE, keySpec);
+        } else if (AES_GCM.equals(algo)) {
+            int length = in.remaining();
+            byte[] header = new byte[Math.min(length, GCM_PREFIX_LENGTH + GCM_MAX_FILL + GCM_NONCE_LENGTH)];
+            in.duplicate().get(header);
+            if (!isGcmFormat(header, 0, length)) {
+                throw new IllegalBlockSizeException("crypted data header error");
+            }
+            int nonceOffset = GCM_PREFIX_LENGTH + header[GCM_PREFIX_LENGTH - 1];
+            in.position(in.position() + nonceOffset + GCM_NONCE_LENGTH);
+            cipherEnc.init(Cipher.DECRYPT_MODE, keySpec,
+                new GCMParameterSpec(GCM_TAG_BITS, header, nonceOffset, GCM_NONCE_LENGTH));
         } else {
-            byte[] iv = cipherEnc.getIV();
-            byte[] ret = new byte[iv.length + data.length];
-            System.arraycopy(iv, 0, ret, 0, iv.length);
-            System.arraycopy(data, 0, ret, iv.length, data.length);
-            return ret;
+            if (in.remaining() < IV_LENGTH) {
+                throw new IllegalBlockSizeException("crypted data size error");
+            }
+            byte[] iv = new byte[IV_LENGTH];
+            in.get(iv);
+            cipherEnc.init(Cipher.DECRYPT_MODE, keySpec, new IvParameterSpec(iv));
+        }
+        return cipherEnc.doFinal(in, out);
+    }
+
+    /**
+     * Encrypts {@code srcPath} into {@code dstPath} with AES/CBC, using the same IV-prefixed
+     * layout as {@link #encrypt(byte[], String)}. Data is processed in fixed-size chunks, so
+     * memory use does not depend on the file size.
+     */
+    public static void encryptFile(String srcPath, String dstPath, String key, ProgressListener listener)
+            throws IOException, GeneralSecurityException {
+        Cipher cipherEnc = obtainCipher(AES_CBC);
+        cipherEnc.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key.getBytes(), "AES"));
+        try (FileChannel in = new FileInputStream(srcPath).getChannel();
+             FileChannel out = new FileOutputStream(dstPath).getChannel()) {
+            writeFully(out, ByteBuffer.wrap(cipherEnc.getIV()));
+            transform(cipherEnc, in, out, listener);
+        }
+    }
+
+    /** Reverses {@link #encryptFile}; the IV is read from the first block of {@code srcPath}. */
+    public static void decryptFile(String srcPath, String dstPath, String key, ProgressListener listener)
+            throws IOException, GeneralSecurityException {
+        Cipher cipherEnc = obtainCipher(AES_CBC);
+        try (FileChannel in = new FileInputStream(srcPath).getChannel();
+             FileChannel out = new FileOutputStream(dstPath).getChannel()) {
+            ByteBuffer ivBuffer = ByteBuffer.allocate(IV_LENGTH);
+            while (ivBuffer.hasRemaining()) {
+                if (in.read(ivBuffer) < 0) {
+                    throw new IllegalBlockSizeException("crypted data size error");
+                }
+            }
+            cipherEnc.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key.getBytes(), "AES"), new IvParameterSpec(ivBuffer.array()));
+            transform(cipherEnc, in, out, listener);
+        }
+    }
+
+    private static void transform(Cipher cipher, FileChannel in, FileChannel out, ProgressListener listener)
+            throws IOException, GeneralSecurityException {
+        long total = in.size();
+        long processed = in.position();
+        ByteBuffer inBuffer = ByteBuffer.allocate(STREAM_CHUNK_SIZE);
+        ByteBuffer outBuffer = ByteBuffer.allocate(cipher.getOutputSize(STREAM_CHUNK_SIZE));
+        int read;
+        while ((read = in.read(inBuffer)) >= 0) {
+            if (read == 0) {
+                continue;
+            }
+            outBuffer.clear();
+            int written = cipher.update(inBuffer.array(), 0, read, outBuffer.array(), 0);
+            outBuffer.limit(written);
+            writeFully(out, outBuffer);
+            inBuffer.clear();
+            processed += read;
+            if (listener != null) {
+                listener.onProgress(processed, total);
+            }
+        }
+        outBuffer.clear();
+        int written = cipher.doFinal(outBuffer.array(), 0);
+        outBuffer.limit(written);
+        writeFully(out, outBuffer);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
         }
     }
 }
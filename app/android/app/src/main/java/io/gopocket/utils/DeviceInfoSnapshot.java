@@ -0,0 +1,432 @@
+package io.paliwallet.utils;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.snail.antifake.jni.EmulatorDetectUtil;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide device info for RNToolsManager.getDeviceInfo. Each field is computed the first
+ * time someone asks for it: fields that cannot change while the process lives (build, screen,
+ * emulator / AV checks) are then kept, launcher apps, battery and network come from
+ * {@link LauncherPackageIndex}, {@link PowerStateMonitor} and {@link ConnectivityMonitor},
+ * language registers the locale broadcast on first use and is refreshed only when it fires, and
+ * free disk space is re-read with StatFs once it is older than {@link #FREE_DISK_TTL_MS}, since
+ * no broadcast reports it as it changes. The serialized JSON is cached until one of them
+ * changes. Each field (or group of fields sharing a source) is computed under its own guard,
+ * and the snapshot lock is only held to read or store values, so asking for a cheap field never
+ * waits behind the package scan or the emulator check.
+ */
+public class DeviceInfoSnapshot {
+	private static final String TAG = "DeviceInfoSnapshot";
+
+	public static final String MANUFACTURER = "manufacturer";
+	public static final String BRAND = "brand";
+	public static final String MODEL = "model";
+	public static final String DEVICE = "device";
+	public static final String PRODUCT = "product";
+	public static final String SDK_INT = "sdk_int";
+	public static final String NET_TYPE = "net_type";
+	public static final String LANG = "lang";
+	public static final String RESOLUTION = "resolution";
+	public static final String DENSITY = "density";
+	public static final String FREE_DISK_STORAGE = "freeDiskStorage";
+	public static final String BATTERY_LEVEL = "batteryLevel";
+	public static final String IS_BATTERY_CHARGING = "isBatteryCharging";
+	public static final String IS_EMULATOR = "isEmulator";
+	public static final String IS_AV = "isAV";
+	public static final String ABIS = "abis";
+	public static final String PKGS = "pkgs";
+	public static final String PKGS_SIZE = "pkgsSize";
+
+	/** Every field, in the order getDeviceInfo serializes them. */
+	public static final List<String> FIELDS = Arrays.asList(MANUFACTURER, BRAND, MODEL, DEVICE, PRODUCT,
+		SDK_INT, NET_TYPE, LANG, RESOLUTION, DENSITY, FREE_DISK_STORAGE, BATTERY_LEVEL, IS_BATTERY_CHARGING,
+		IS_EMULATOR, IS_AV, ABIS, PKGS, PKGS_SIZE);
+
+	/** The fields the app reports at startup (ApiClient's ANDROID_DEVICE_FIELDS), worth warming early. */
+	public static final List<String> STARTUP_FIELDS = Arrays.asList(MANUFACTURER, BRAND, MODEL, DEVICE,
+		PRODUCT, SDK_INT, LANG, RESOLUTION, DENSITY, IS_EMULATOR, ABIS);
+
+	// pkgs is left out from this many apps on; pkgsSize is always reported
+	private static final int MAX_REPORTED_PACKAGES = 20;
+	// StatFs is a cheap syscall, but getDeviceInfo can be polled
+	private static final long FREE_DISK_TTL_MS = 30 * 1000;
+
+	private static DeviceInfoSnapshot sInstance;
+
+	private final Context mContext;
+	private Handler mHandler;
+	// mValues, mCostNs and mCachedJson are guarded by this
+	private final Map<String, Object> mValues = new HashMap<>();
+	// first-computation cost per field; fields sharing a source are charged to the first one asked
+	private final Map<String, Long> mCostNs = new HashMap<>();
+	// field -> lock held while it is first computed; fields sharing a source share one
+	private final Map<String, Object> mGuards = new HashMap<>();
+	private volatile boolean mPrepared;
+
+	// each flag is only touched under its field's guard, mSystemRegistered under this
+	private boolean mBatteryWatched;
+	private boolean mNetworkWatched;
+	private boolean mPackagesLoaded;
+	private boolean mSystemRegistered;
+	private long mFreeDiskSampledAt;
+	private String mCachedJson;
+
+	public static synchronized DeviceInfoSnapshot getInstance(Context context) {
+		if (sInstance == null) {
+			sInstance = new DeviceInfoSnapshot(context.getApplicationContext());
+		}
+		return sInstance;
+	}
+
+	private DeviceInfoSnapshot(Context context) {
+		mContext = context;
+		Object battery = new Object();
+		Object packages = new Object();
+		for (String field : FIELDS) {
+			mGuards.put(field, new Object());
+		}
+		mGuards.put(BATTERY_LEVEL, battery);
+		mGuards.put(IS_BATTERY_CHARGING, battery);
+		mGuards.put(PKGS, packages);
+		mGuards.put(PKGS_SIZE, packages);
+	}
+
+	/**
+	 * Computes every field. Expensive (package manager IPC, JNI emulator check), so call it off
+	 * the main thread; later calls are no-ops.
+	 */
+	public void prepare() {
+		if (mPrepared) {
+			return;
+		}
+		for (String field : FIELDS) {
+			get(field);
+		}
+		mPrepared = true;
+	}
+
+	/** Computes {@code fields} ahead of their first request; call it off the main thread too. */
+	public void prepare(Collection<String> fields) {
+		for (String field : fields) {
+			get(field);
+		}
+	}
+
+	public boolean isPrepared() {
+		return mPrepared;
+	}
+
+	/** Whether every one of {@code fields} (all of them when null) is known, so reading them is cheap. */
+	public synchronized boolean isKnown(Collection<String> fields) {
+		for (String field : fields == null ? FIELDS : fields) {
+			if (mGuards.containsKey(field) && !mValues.containsKey(field)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public String toJson() {
+		prepare();
+		get(FREE_DISK_STORAGE);
+		synchronized (this) {
+			return serialize();
+		}
+	}
+
+	private String serialize() {
+		if (mCachedJson != null) {
+			return mCachedJson;
+		}
+		try {
+			JSONObject deviceInfo = new JSONObject();
+			for (String field : FIELDS) {
+				Object value = mValues.get(field);
+				if (value instanceof Collection) {
+					value = new JSONArray((Collection<?>) value);
+				}
+				if (value != null) {
+					deviceInfo.put(field, value);
+				}
+			}
+			mCachedJson = deviceInfo.toString();
+		} catch (JSONException e) {
+			Log.e("getDeviceInfo", "Error reading device info", e);
+			return "{}";
+		}
+		return mCachedJson;
+	}
+
+	/**
+	 * The given fields, or all of them when {@code fields} is null, computing only those not
+	 * known yet. Unknown names are skipped.
+	 */
+	public WritableMap toMap(Collection<String> fields) {
+		WritableMap map = Arguments.createMap();
+		for (String field : fields == null ? FIELDS : fields) {
+			putValue(map, field, get(field));
+		}
+		return map;
+	}
+
+	/** Milliseconds each field took to compute the first time, receiver registration included. */
+	public synchronized WritableMap getFieldCosts() {
+		WritableMap costs = Arguments.createMap();
+		for (Map.Entry<String, Long> entry : mCostNs.entrySet()) {
+			costs.putDouble(entry.getKey(), entry.getValue() / 1e6);
+		}
+		return costs;
+	}
+
+	private Object get(String field) {
+		Object guard = mGuards.get(field);
+		if (guard == null) {
+			return null;
+		}
+		if (FREE_DISK_STORAGE.equals(field)) {
+			return getFreeDiskStorage(guard);
+		}
+		synchronized (this) {
+			if (mValues.containsKey(field)) {
+				return mValues.get(field);
+			}
+		}
+		synchronized (guard) {
+			synchronized (this) {
+				if (mValues.containsKey(field)) {
+					return mValues.get(field);
+				}
+			}
+			long start = SystemClock.elapsedRealtimeNanos();
+			Object value = compute(field);
+			long cost = SystemClock.elapsedRealtimeNanos() - start;
+			synchronized (this) {
+				mCostNs.put(field, cost);
+				// broadcast-backed groups have stored their fields already
+				if (!mValues.containsKey(field)) {
+					mValues.put(field, value);
+				}
+				return mValues.get(field);
+			}
+		}
+	}
+
+	private Object getFreeDiskStorage(Object guard) {
+		synchronized (guard) {
+			long now = SystemClock.elapsedRealtime();
+			if (mFreeDiskSampledAt == 0 || now - mFreeDiskSampledAt >= FREE_DISK_TTL_MS) {
+				long start = SystemClock.elapsedRealtimeNanos();
+				double free = DeviceInfoUtils.getFreeDiskStorage();
+				long cost = SystemClock.elapsedRealtimeNanos() - start;
+				synchronized (this) {
+					if (!mCostNs.containsKey(FREE_DISK_STORAGE)) {
+						mCostNs.put(FREE_DISK_STORAGE, cost);
+					}
+					setValue(FREE_DISK_STORAGE, free);
+				}
+				mFreeDiskSampledAt = now;
+			}
+		}
+		synchronized (this) {
+			return mValues.get(FREE_DISK_STORAGE);
+		}
+	}
+
+	private Object compute(String field) {
+		switch (field) {
+			case MANUFACTURER:
+				return Build.MANUFACTURER;
+			case BRAND:
+				return Build.BRAND;
+			case MODEL:
+				return Build.MODEL;
+			case DEVICE:
+				return Build.DEVICE;
+			case PRODUCT:
+				return Build.PRODUCT;
+			case SDK_INT:
+				return Build.VERSION.SDK_INT;
+			case RESOLUTION:
+				return DeviceInfoUtils.getScreenSize(mContext);
+			case DENSITY:
+				return DeviceInfoUtils.getDeviceDpiInfo(mContext);
+			case IS_EMULATOR:
+				return EmulatorDetectUtil.isEmulator(mContext);
+			case IS_AV:
+				return DeviceInfoUtils.isAV();
+			case ABIS:
+				if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+					return Arrays.asList(Build.SUPPORTED_ABIS);
+				}
+				return null;
+			case NET_TYPE:
+				watchNetwork();
+				return null;
+			case LANG:
+				registerSystemReceiver();
+				return DeviceInfoUtils.getCurLanguage();
+			case BATTERY_LEVEL:
+			case IS_BATTERY_CHARGING:
+				watchBattery();
+				return null;
+			case PKGS:
+			case PKGS_SIZE:
+				loadPackages();
+				return null;
+			default:
+				return null;
+		}
+	}
+
+	private static void putValue(WritableMap map, String field, Object value) {
+		if (value instanceof String) {
+			map.putString(field, (String) value);
+		} else if (value instanceof Integer) {
+			map.putInt(field, (Integer) value);
+		} else if (value instanceof Number) {
+			map.putDouble(field, ((Number) value).doubleValue());
+		} else if (value instanceof Boolean) {
+			map.putBoolean(field, (Boolean) value);
+		} else if (value instanceof Collection) {
+			WritableArray array = Arguments.createArray();
+			for (Object item : (Collection<?>) value) {
+				array.pushString(String.valueOf(item));
+			}
+			map.putArray(field, array);
+		}
+	}
+
+	private synchronized Handler getHandler() {
+		if (mHandler == null) {
+			HandlerThread thread = new HandlerThread(TAG, android.os.Process.THREAD_PRIORITY_BACKGROUND);
+			thread.start();
+			mHandler = new Handler(thread.getLooper());
+		}
+		return mHandler;
+	}
+
+	private void watchBattery() {
+		if (mBatteryWatched) {
+			return;
+		}
+		mBatteryWatched = true;
+		PowerStateMonitor monitor = PowerStateMonitor.getInstance(mContext);
+		monitor.addListener(new PowerStateMonitor.Listener() {
+			@Override
+			public void onPowerStateChanged(PowerStateMonitor.PowerState state) {
+				updateBattery(state);
+			}
+		});
+		updateBattery(monitor.getState());
+	}
+
+	private void watchNetwork() {
+		if (mNetworkWatched) {
+			return;
+		}
+		mNetworkWatched = true;
+		ConnectivityMonitor monitor = ConnectivityMonitor.getInstance(mContext);
+		monitor.addListener(new ConnectivityMonitor.Listener() {
+			@Override
+			public void onConnectivityChanged(ConnectivityMonitor.NetworkState state) {
+				updateNetType(state);
+			}
+		});
+		updateNetType(monitor.getState());
+	}
+
+	private void registerSystemReceiver() {
+		synchronized (this) {
+			if (mSystemRegistered) {
+				return;
+			}
+			mSystemRegistered = true;
+		}
+		IntentFilter filter = new IntentFilter();
+		filter.addAction(Intent.ACTION_LOCALE_CHANGED);
+		mContext.registerReceiver(mReceiver, filter, null, getHandler());
+	}
+
+	private void loadPackages() {
+		if (mPackagesLoaded) {
+			return;
+		}
+		mPackagesLoaded = true;
+		final Handler handler = getHandler();
+		LauncherPackageIndex index = LauncherPackageIndex.getInstance(mContext);
+		index.setListener(new LauncherPackageIndex.Listener() {
+			@Override
+			public void onLauncherPackagesChanged() {
+				List<String> packages = LauncherPackageIndex.getInstance(mContext).getPackages(handler);
+				synchronized (DeviceInfoSnapshot.this) {
+					setPackages(packages);
+				}
+			}
+		});
+		List<String> packages = index.getPackages(handler);
+		synchronized (this) {
+			setPackages(packages);
+		}
+	}
+
+	private void setPackages(List<String> packages) {
+		mValues.put(PKGS, packages.size() < MAX_REPORTED_PACKAGES ? packages : null);
+		mValues.put(PKGS_SIZE, packages.size());
+		mCachedJson = null;
+	}
+
+	private void setValue(String field, Object value) {
+		Object old = mValues.get(field);
+		if (!mValues.containsKey(field) || (value == null ? old != null : !value.equals(old))) {
+			mValues.put(field, value);
+			mCachedJson = null;
+		}
+	}
+
+	private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
+		@Override
+		public void onReceive(Context context, Intent intent) {
+			String lang = DeviceInfoUtils.getCurLanguage();
+			synchronized (DeviceInfoSnapshot.this) {
+				setValue(LANG, lang);
+			}
+		}
+	};
+
+	private synchronized void updateBattery(PowerStateMonitor.PowerState state) {
+		setValue(BATTERY_LEVEL, state.batteryLevel);
+		setValue(IS_BATTERY_CHARGING, state.charging);
+	}
+
+	private synchronized void updateNetType(ConnectivityMonitor.NetworkState state) {
+		String netType = "unknown";
+		if (state.connected && ConnectivityMonitor.TRANSPORT_WIFI.equals(state.transport)) {
+			netType = "wifi";
+		} else if (state.connected && ConnectivityMonitor.TRANSPORT_CELLULAR.equals(state.transport)) {
+			netType = "mobile";
+		}
+		setValue(NET_TYPE, netType);
+	}
+}
@@ -1,34 +1,22 @@
 package io.paliwallet.utils;
 
 import android.content.Context;
-import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.res.Resources;
 import android.graphics.Point;
-import android.os.BatteryManager;
 import android.os.Build;
 import android.os.Environment;
-import android.os.PowerManager;
 import android.os.StatFs;
 import android.util.DisplayMetrics;
 
-import com.facebook.react.bridge.Arguments;
-import com.facebook.react.bridge.WritableMap;
 import java.lang.reflect.Method;
 import java.math.BigInteger;
 import java.text.DecimalFormat;
 import java.util.Locale;
-import static android.os.BatteryManager.BATTERY_STATUS_CHARGING;
-import static android.os.BatteryManager.BATTERY_STATUS_FULL;
 
 public class DeviceInfoUtils {
 
 	private static final boolean DEBUG = true;
 
-	private static String BATTERY_STATE = "batteryState";
-	private static String BATTERY_LEVEL= "batteryLevel";
-	private static String LOW_POWER_MODE = "lowPowerMode";
-
 	public static boolean isAV() {
 		try {
 			Object o = Reflect.on("android.app.ActivityThread").get("sPackageManager");
@@ -106,59 +94,10 @@ public class DeviceInfoUtils {
 	}
 
 	public static double getBatteryLevel(Context context) {
-		Intent intent = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
-		WritableMap powerState = getPowerStateFromIntent(intent, context);
-
-		if(powerState == null) {
-			return 0;
-		}
-
-		return powerState.getDouble(BATTERY_LEVEL);
+		return PowerStateMonitor.getInstance(context).getState().batteryLevel;
 	}
 
-	public static boolean isBatteryCharging(Context context){
-		IntentFilter ifilter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
-		Intent batteryStatus = context.registerReceiver(null, ifilter);
-		int status = 0;
-		if (batteryStatus != null) {
-			status = batteryStatus.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
-		}
-		return status == BATTERY_STATUS_CHARGING;
-	}
-
-	private static WritableMap getPowerStateFromIntent(Intent intent, Context context) {
-		if(intent == null) {
-			return null;
-		}
-
-		int batteryLevel = intent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
-		int batteryScale = intent.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
-		int isPlugged = intent.getIntExtra(BatteryManager.EXTRA_PLUGGED, -1);
-		int status = intent.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
-
-		float batteryPercentage = batteryLevel / (float)batteryScale;
-
-		String batteryState = "unknown";
-
-		if(isPlugged == 0) {
-			batteryState = "unplugged";
-		} else if(status == BATTERY_STATUS_CHARGING) {
-			batteryState = "charging";
-		} else if(status == BATTERY_STATUS_FULL) {
-			batteryState = "full";
-		}
-
-		PowerManager powerManager = (PowerManager)context.getSystemService(Context.POWER_SERVICE);
-		boolean powerSaveMode = false;
-		if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.LOLLIPOP) {
-			powerSaveMode = powerManager.isPowerSaveMode();
-		}
-
-		WritableMap powerState = Arguments.createMap();
-		powerState.putString(BATTERY_STATE, batteryState);
-		powerState.putDouble(BATTERY_LEVEL, batteryPercentage);
-		powerState.putBoolean(LOW_POWER_MODE, powerSaveMode);
-
-		return powerState;
+	public static boolean isBatteryCharging(Context context) {
+		return PowerStateMonitor.getInstance(context).getState().charging;
 	}
 }
@@ -0,0 +1,155 @@
+package io.paliwallet.utils;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.modules.network.OkHttpClientFactory;
+import com.facebook.react.modules.network.OkHttpClientProvider;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Cache;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * One on-disk LRU HTTP cache for every fetch made by the app and the worker engine. OkHttp
+ * revalidates stored responses with If-None-Match / If-Modified-Since, so unchanged price and
+ * token metadata payloads come back as an empty 304. Hosts with a TTL override have their
+ * successful GET responses treated as fresh for that long, whatever the server sent.
+ */
+public class HttpResponseCache {
+	private static final String TAG = "HttpResponseCache";
+	private static final long MAX_SIZE = 50L * 1024 * 1024;
+	/** Directory under getCacheDir(); the cacheDir sweep must leave it to {@link Cache#evictAll()}. */
+	public static final String CACHE_DIR = "pali-http-cache";
+
+	private static final Map<String, Integer> sHostTtls = new ConcurrentHashMap<>();
+
+	static {
+		sHostTtls.put("api.coingecko.com", 60);
+		sHostTtls.put("open.er-api.com", 60 * 60);
+		sHostTtls.put("api.opensea.io", 5 * 60);
+		sHostTtls.put("infura-ipfs.io", 24 * 60 * 60);
+	}
+
+	private static Cache sCache;
+	private static final AtomicLong sHits = new AtomicLong();
+	private static final AtomicLong sRevalidated = new AtomicLong();
+	private static final AtomicLong sMisses = new AtomicLong();
+	private static final AtomicLong sBytesSaved = new AtomicLong();
+
+	/** Makes every client from OkHttpClientProvider share the cache; call before React starts. */
+	public static synchronized void install(Context context) {
+		if (sCache != null) {
+			return;
+		}
+		sCache = new Cache(new File(context.getCacheDir(), CACHE_DIR), MAX_SIZE);
+		OkHttpClientProvider.setOkHttpClientFactory(new OkHttpClientFactory() {
+			@Override
+			public OkHttpClient createNewNetworkModuleClient() {
+				return OkHttpClientProvider.createClientBuilder()
+					.cache(sCache)
+					.addInterceptor(sCounter)
+					.addNetworkInterceptor(sTtlOverride)
+					.build();
+			}
+		});
+		StoragePressureMonitor.getInstance(context).registerEvictionHook("httpCache",
+			StoragePressureMonitor.PRIORITY_OWNED_CACHE, new StoragePressureMonitor.EvictionHook() {
+				@Override
+				public long evict(int level) {
+					try {
+						long size = sCache.size();
+						sCache.evictAll();
+						return size;
+					} catch (IOException e) {
+						Log.e(TAG, "evict failed", e);
+						return 0;
+					}
+				}
+			});
+	}
+
+	/** Treats GET responses from {@code host} as fresh for {@code seconds}; 0 removes the override. */
+	public static void setHostTtl(String host, int seconds) {
+		if (seconds > 0) {
+			sHostTtls.put(host, seconds);
+		} else {
+			sHostTtls.remove(host);
+		}
+	}
+
+	public static void clear() throws IOException {
+		if (sCache != null) {
+			sCache.evictAll();
+		}
+	}
+
+	public static WritableMap getStats() {
+		WritableMap stats = Arguments.createMap();
+		stats.putDouble("hits", sHits.get());
+		stats.putDouble("revalidated", sRevalidated.get());
+		stats.putDouble("misses", sMisses.get());
+		stats.putDouble("bytesSaved", sBytesSaved.get());
+		try {
+			stats.putDouble("size", sCache == null ? 0 : sCache.size());
+		} catch (IOException e) {
+			stats.putDouble("size", -1);
+		}
+		stats.putDouble("maxSize", MAX_SIZE);
+		return stats;
+	}
+
+	private static final Interceptor sCounter = new Interceptor() {
+		@Override
+		public Response intercept(Chain chain) throws IOException {
+			Request request = chain.request();
+			Response response = chain.proceed(request);
+			if (!"GET".equals(request.method())) {
+				return response;
+			}
+			Response cached = response.cacheResponse();
+			Response network = response.networkResponse();
+			if (cached != null && network == null) {
+				sHits.incrementAndGet();
+				sBytesSaved.addAndGet(Math.max(0, response.body().contentLength()));
+			} else if (cached != null && network.code() == 304) {
+				sRevalidated.incrementAndGet();
+				sBytesSaved.addAndGet(Math.max(0, response.body().contentLength()));
+			} else {
+				sMisses.incrementAndGet();
+			}
+			return response;
+		}
+	};
+
+	private static final Interceptor sTtlOverride = new Interceptor() {
+		@Override
+		public Response intercept(Chain chain) throws IOException {
+			Request request = chain.request();
+			Response response = chain.proceed(request);
+			Integer ttl = sHostTtls.get(request.url().host());
+			if (ttl == null || !"GET".equals(request.method())) {
+				return response;
+			}
+			// 304 headers are merged into the stored response, so they need the override too
+			if (!response.isSuccessful() && response.code() != 304) {
+				return response;
+			}
+			return response.newBuilder()
+				.header("Cache-Control", "public, max-age=" + ttl)
+				.removeHeader("Pragma")
+				.removeHeader("Expires")
+				.build();
+		}
+	};
+}
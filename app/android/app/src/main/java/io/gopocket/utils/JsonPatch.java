@@ -0,0 +1,75 @@
+package io.paliwallet.utils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Structural diff of two JSON-like trees (Map, List, String, Number, Boolean, null) as RFC 6902
+ * operations. Arrays are compared index by index with additions and removals at the tail, which
+ * is what controller states do in practice; values are shared with the new tree, not copied.
+ */
+public class JsonPatch {
+
+	private JsonPatch() {
+	}
+
+	/** Appends the operations turning {@code from} into {@code to}, both at {@code path}, to {@code ops}. */
+	@SuppressWarnings("unchecked")
+	public static void diff(String path, Object from, Object to, List<Map<String, Object>> ops) {
+		if (from == to) {
+			return;
+		}
+		if (from instanceof Map && to instanceof Map) {
+			Map<String, Object> a = (Map<String, Object>) from;
+			Map<String, Object> b = (Map<String, Object>) to;
+			for (String key : a.keySet()) {
+				if (!b.containsKey(key)) {
+					ops.add(op("remove", path + "/" + escape(key), null));
+				}
+			}
+			for (Map.Entry<String, Object> entry : b.entrySet()) {
+				String child = path + "/" + escape(entry.getKey());
+				if (a.containsKey(entry.getKey())) {
+					diff(child, a.get(entry.getKey()), entry.getValue(), ops);
+				} else {
+					ops.add(op("add", child, entry.getValue()));
+				}
+			}
+		} else if (from instanceof List && to instanceof List) {
+			List<Object> a = (List<Object>) from;
+			List<Object> b = (List<Object>) to;
+			int common = Math.min(a.size(), b.size());
+			for (int i = 0; i < common; i++) {
+				diff(path + "/" + i, a.get(i), b.get(i), ops);
+			}
+			for (int i = common; i < b.size(); i++) {
+				ops.add(op("add", path + "/" + i, b.get(i)));
+			}
+			// from the end, so earlier indexes stay valid while the ops are applied in order
+			for (int i = a.size() - 1; i >= common; i--) {
+				ops.add(op("remove", path + "/" + i, null));
+			}
+		} else if (!Objects.equals(from, to)) {
+			ops.add(op("replace", path, to));
+		}
+	}
+
+	private static Map<String, Object> op(String op, String path, Object value) {
+		Map<String, Object> map = new HashMap<>(4);
+		map.put("op", op);
+		map.put("path", path);
+		if (!"remove".equals(op)) {
+			map.put("value", value);
+		}
+		return map;
+	}
+
+	private static String escape(String token) {
+		if (token.indexOf('~') < 0 && token.indexOf('/') < 0) {
+			return token;
+		}
+		return token.replace("~", "~0").replace("/", "~1");
+	}
+}
@@ -0,0 +1,476 @@
+package io.paliwallet.utils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * JSON-RPC over HTTP with one pooled client per endpoint (HTTP/2 where the server offers it).
+ * Calls to the same endpoint that arrive within {@code batchWindowMs} of each other go out as
+ * one batch array; ids are rewritten for the wire and restored in each response, so callers
+ * sharing an endpoint may reuse ids. Responses are parsed on OkHttp's threads. Endpoints that
+ * answer a batch with a JSON-RPC error get the calls again one by one, and no more batches. A
+ * non-2xx status fails the calls it carried and holds the endpoint's next request back for a
+ * doubling delay, reset by the next successful response.
+ * Identical read-only calls (same endpoint, method and params, block tag included) that are in
+ * flight at the same time share one request, and results of reads against the latest block are
+ * reused for {@code latestTtlMs}.
+ */
+public class JsonRpcClient {
+	private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+	private static final int MAX_CACHED_RESULTS = 256;
+	private static final long MIN_BACKOFF_MS = 1000;
+	private static final long MAX_BACKOFF_MS = 30000;
+
+	private static final Set<String> READ_ONLY_METHODS = new HashSet<>(Arrays.asList(
+		"eth_blockNumber", "eth_chainId", "net_version", "eth_gasPrice", "eth_maxPriorityFeePerGas",
+		"eth_feeHistory", "eth_getBalance", "eth_getCode", "eth_getStorageAt", "eth_getTransactionCount",
+		"eth_call", "eth_estimateGas", "eth_getBlockByNumber", "eth_getBlockByHash", "eth_getLogs",
+		"eth_getTransactionByHash", "eth_getTransactionReceipt"));
+	// no block parameter, the answer always reflects the latest block
+	private static final Set<String> LATEST_ONLY_METHODS = new HashSet<>(Arrays.asList(
+		"eth_blockNumber", "eth_gasPrice", "eth_maxPriorityFeePerGas"));
+
+	public interface Callback {
+		/** The response object, {@code result} or {@code error}, with the caller's id. */
+		void onResponse(JSONObject response);
+
+		void onFailure(Exception e);
+	}
+
+	private final OkHttpClient mBaseClient;
+	private final long mBatchWindowMs;
+	private final int mMaxBatchSize;
+	private final long mLatestTtlMs;
+	private final ScheduledExecutorService mScheduler;
+	private final Map<String, Endpoint> mEndpoints = new HashMap<>();
+
+	public JsonRpcClient(OkHttpClient baseClient, long batchWindowMs, int maxBatchSize, long latestTtlMs) {
+		mBaseClient = baseClient;
+		mBatchWindowMs = batchWindowMs;
+		mMaxBatchSize = maxBatchSize;
+		mLatestTtlMs = latestTtlMs;
+		mScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "JsonRpcClient-batch");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	public void send(String url, JSONObject request, Callback callback) {
+		getEndpoint(url).send(new Pending(request, callback));
+	}
+
+	/**
+	 * Per endpoint: calls, batches and HTTP requests sent, failed HTTP requests, calls that joined
+	 * an identical one in flight, and calls answered from a cached latest-block result.
+	 */
+	public synchronized Map<String, long[]> getStats() {
+		Map<String, long[]> stats = new HashMap<>();
+		for (Endpoint endpoint : mEndpoints.values()) {
+			stats.put(endpoint.mUrl, new long[]{endpoint.mCalls.get(), endpoint.mBatches.get(),
+				endpoint.mHttpRequests.get(), endpoint.mFailures.get(), endpoint.mCoalesced.get(),
+				endpoint.mCacheHits.get()});
+		}
+		return stats;
+	}
+
+	public void shutdown() {
+		mScheduler.shutdownNow();
+		synchronized (this) {
+			for (Endpoint endpoint : mEndpoints.values()) {
+				endpoint.mClient.connectionPool().evictAll();
+			}
+			mEndpoints.clear();
+		}
+	}
+
+	private synchronized Endpoint getEndpoint(String url) {
+		Endpoint endpoint = mEndpoints.get(url);
+		if (endpoint == null) {
+			OkHttpClient client = mBaseClient.newBuilder()
+				.connectionPool(new ConnectionPool(2, 5, TimeUnit.MINUTES))
+				.protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+				.build();
+			endpoint = new Endpoint(url, client);
+			mEndpoints.put(url, endpoint);
+		}
+		return endpoint;
+	}
+
+	private static class Pending {
+		final JSONObject request;
+		final Callback callback;
+
+		Pending(JSONObject request, Callback callback) {
+			this.request = request;
+			this.callback = callback;
+		}
+
+		void respond(JSONObject response) {
+			try {
+				response.put("id", request.opt("id"));
+			} catch (JSONException e) {
+				// "id" is a valid name, put cannot fail
+			}
+			callback.onResponse(response);
+		}
+	}
+
+	private static class CachedResult {
+		final JSONObject response;
+		final long expiresAt;
+
+		CachedResult(JSONObject response, long expiresAt) {
+			this.response = response;
+			this.expiresAt = expiresAt;
+		}
+	}
+
+	private class Endpoint {
+		final String mUrl;
+		final OkHttpClient mClient;
+		final AtomicLong mCalls = new AtomicLong();
+		final AtomicLong mBatches = new AtomicLong();
+		final AtomicLong mHttpRequests = new AtomicLong();
+		final AtomicLong mFailures = new AtomicLong();
+		final AtomicLong mCoalesced = new AtomicLong();
+		final AtomicLong mCacheHits = new AtomicLong();
+		private List<Pending> mQueue = new ArrayList<>();
+		private ScheduledFuture<?> mFlush;
+		private volatile boolean mBatchRejected;
+		// back-off after a non-2xx status: current delay and when the next request may go out
+		private long mBackoffMs;
+		private long mRetryAt;
+		// keyed by method and params; the first caller's Pending goes out, the rest wait on it
+		private final Map<String, List<Pending>> mInFlight = new HashMap<>();
+		private final Map<String, CachedResult> mResults = new HashMap<>();
+
+		Endpoint(String url, OkHttpClient client) {
+			mUrl = url;
+			mClient = client;
+		}
+
+		void send(final Pending pending) {
+			mCalls.incrementAndGet();
+			final String key = coalescingKey(pending.request);
+			if (key == null) {
+				enqueue(pending);
+				return;
+			}
+			JSONObject cached = null;
+			synchronized (this) {
+				CachedResult result = mResults.get(key);
+				if (result != null && result.expiresAt > System.currentTimeMillis()) {
+					cached = result.response;
+				} else {
+					List<Pending> waiters = mInFlight.get(key);
+					if (waiters != null) {
+						mCoalesced.incrementAndGet();
+						waiters.add(pending);
+						return;
+					}
+					waiters = new ArrayList<>();
+					waiters.add(pending);
+					mInFlight.put(key, waiters);
+				}
+			}
+			if (cached != null) {
+				mCacheHits.incrementAndGet();
+				pending.respond(copyOf(cached));
+				return;
+			}
+			final boolean cacheable = mLatestTtlMs > 0 && readsLatest(pending.request);
+			enqueue(new Pending(pending.request, new Callback() {
+				@Override
+				public void onResponse(JSONObject response) {
+					List<Pending> waiters;
+					synchronized (Endpoint.this) {
+						waiters = mInFlight.remove(key);
+						if (cacheable && !response.has("error")) {
+							storeResult(key, response);
+						}
+					}
+					for (Pending waiter : waiters) {
+						waiter.respond(copyOf(response));
+					}
+				}
+
+				@Override
+				public void onFailure(Exception e) {
+					List<Pending> waiters;
+					synchronized (Endpoint.this) {
+						waiters = mInFlight.remove(key);
+					}
+					for (Pending waiter : waiters) {
+						waiter.callback.onFailure(e);
+					}
+				}
+			}));
+		}
+
+		private void storeResult(String key, JSONObject response) {
+			long now = System.currentTimeMillis();
+			if (mResults.size() >= MAX_CACHED_RESULTS) {
+				for (Iterator<CachedResult> it = mResults.values().iterator(); it.hasNext(); ) {
+					if (it.next().expiresAt <= now) {
+						it.remove();
+					}
+				}
+				if (mResults.size() >= MAX_CACHED_RESULTS) {
+					mResults.clear();
+				}
+			}
+			mResults.put(key, new CachedResult(response, now + mLatestTtlMs));
+		}
+
+		private final Runnable mFlushTask = new Runnable() {
+			@Override
+			public void run() {
+				synchronized (Endpoint.this) {
+					flushLocked();
+				}
+			}
+		};
+
+		synchronized void enqueue(Pending pending) {
+			mQueue.add(pending);
+			long wait = mRetryAt - System.currentTimeMillis();
+			if (mQueue.size() >= mMaxBatchSize && wait <= 0) {
+				if (mFlush != null) {
+					mFlush.cancel(false);
+				}
+				flushLocked();
+			} else if (mFlush == null) {
+				mFlush = mScheduler.schedule(mFlushTask, Math.max(wait, mBatchWindowMs), TimeUnit.MILLISECONDS);
+			}
+		}
+
+		private void flushLocked() {
+			mFlush = null;
+			if (mQueue.isEmpty()) {
+				return;
+			}
+			long wait = mRetryAt - System.currentTimeMillis();
+			if (wait > 0) {
+				mFlush = mScheduler.schedule(mFlushTask, wait, TimeUnit.MILLISECONDS);
+				return;
+			}
+			List<Pending> batch = mQueue;
+			mQueue = new ArrayList<>();
+			if (batch.size() == 1 || mBatchRejected) {
+				for (Pending pending : batch) {
+					post(pending);
+				}
+			} else {
+				postBatch(batch);
+			}
+		}
+
+		private void post(final Pending pending) {
+			final String body;
+			try {
+				body = withId(pending.request, 0).toString();
+			} catch (JSONException e) {
+				pending.callback.onFailure(e);
+				return;
+			}
+			call(body, new ResponseHandler() {
+				@Override
+				public void onBody(Object json) {
+					if (json instanceof JSONObject) {
+						pending.respond((JSONObject) json);
+					} else {
+						pending.callback.onFailure(new IOException("unexpected JSON-RPC response from " + mUrl));
+					}
+				}
+
+				@Override
+				public void onFailure(Exception e) {
+					pending.callback.onFailure(e);
+				}
+			});
+		}
+
+		private void postBatch(final List<Pending> batch) {
+			mBatches.incrementAndGet();
+			JSONArray array = new JSONArray();
+			try {
+				for (int i = 0; i < batch.size(); i++) {
+					array.put(withId(batch.get(i).request, i));
+				}
+			} catch (JSONException e) {
+				for (Pending pending : batch) {
+					pending.callback.onFailure(e);
+				}
+				return;
+			}
+			call(array.toString(), new ResponseHandler() {
+				@Override
+				public void onBody(Object json) {
+					if (json instanceof JSONObject && ((JSONObject) json).has("error")) {
+						// some public nodes reject or cap batches with a single error object
+						mBatchRejected = true;
+						for (Pending pending : batch) {
+							post(pending);
+						}
+						return;
+					}
+					if (!(json instanceof JSONArray)) {
+						onFailure(new IOException("unexpected JSON-RPC batch response from " + mUrl));
+						return;
+					}
+					JSONArray responses = (JSONArray) json;
+					boolean[] answered = new boolean[batch.size()];
+					for (int i = 0; i < responses.length(); i++) {
+						JSONObject response = responses.optJSONObject(i);
+						int index = response == null ? -1 : response.optInt("id", -1);
+						if (index >= 0 && index < batch.size() && !answered[index]) {
+							answered[index] = true;
+							batch.get(index).respond(response);
+						}
+					}
+					for (int i = 0; i < batch.size(); i++) {
+						if (!answered[i]) {
+							batch.get(i).callback.onFailure(new IOException("no response in batch from " + mUrl));
+						}
+					}
+				}
+
+				@Override
+				public void onFailure(Exception e) {
+					for (Pending pending : batch) {
+						pending.callback.onFailure(e);
+					}
+				}
+			});
+		}
+
+		private void call(String body, final ResponseHandler handler) {
+			mHttpRequests.incrementAndGet();
+			Request request = new Request.Builder()
+				.url(mUrl)
+				.post(RequestBody.create(body, JSON))
+				.build();
+			mClient.newCall(request).enqueue(new okhttp3.Callback() {
+				@Override
+				public void onFailure(Call call, IOException e) {
+					mFailures.incrementAndGet();
+					handler.onFailure(e);
+				}
+
+				@Override
+				public void onResponse(Call call, Response response) {
+					Object json;
+					try {
+						ResponseBody body = response.body();
+						if (!response.isSuccessful()) {
+							backOff();
+							throw new IOException("HTTP " + response.code() + " from " + mUrl);
+						}
+						json = new JSONTokener(body == null ? "" : body.string()).nextValue();
+						recovered();
+					} catch (Exception e) {
+						mFailures.incrementAndGet();
+						handler.onFailure(e);
+						return;
+					} finally {
+						response.close();
+					}
+					handler.onBody(json);
+				}
+			});
+		}
+
+		private synchronized void backOff() {
+			mBackoffMs = mBackoffMs == 0 ? MIN_BACKOFF_MS : Math.min(mBackoffMs * 2, MAX_BACKOFF_MS);
+			mRetryAt = System.currentTimeMillis() + mBackoffMs;
+		}
+
+		private synchronized void recovered() {
+			mBackoffMs = 0;
+			mRetryAt = 0;
+		}
+	}
+
+	private interface ResponseHandler {
+		void onBody(Object json);
+
+		void onFailure(Exception e);
+	}
+
+	/** Null for calls that must not be shared, i.e. anything that is not a known read. */
+	private static String coalescingKey(JSONObject request) {
+		String method = request.optString("method");
+		if (!READ_ONLY_METHODS.contains(method)) {
+			return null;
+		}
+		Object params = request.opt("params");
+		return params == null ? method : method + params;
+	}
+
+	private static boolean readsLatest(JSONObject request) {
+		String method = request.optString("method");
+		if (LATEST_ONLY_METHODS.contains(method)) {
+			return true;
+		}
+		// the block tag is the last param of every block-parameterised read
+		JSONArray params = request.optJSONArray("params");
+		return params != null && params.length() > 0 && "latest".equals(params.opt(params.length() - 1));
+	}
+
+	private static JSONObject copyOf(JSONObject response) {
+		JSONObject copy = new JSONObject();
+		try {
+			for (Iterator<String> it = response.keys(); it.hasNext(); ) {
+				String key = it.next();
+				copy.put(key, response.get(key));
+			}
+		} catch (JSONException e) {
+			// keys come from a valid object, put cannot fail
+		}
+		return copy;
+	}
+
+	private static JSONObject withId(JSONObject request, int id) throws JSONException {
+		JSONObject copy = new JSONObject();
+		copy.put("jsonrpc", "2.0");
+		copy.put("id", id);
+		copy.put("method", request.getString("method"));
+		Object params = request.opt("params");
+		if (params != null) {
+			copy.put("params", params);
+		}
+		return copy;
+	}
+}
@@ -0,0 +1,140 @@
+package io.paliwallet.utils;
+
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * PBKDF2-HMAC-SHA512 keys handed out as opaque, random handles. Matches react-native-aes-crypto's
+ * pbkdf2 output, so vaults written by the JS Encryptor keep decrypting. Every derive runs the
+ * full PBKDF2; callers keep the handle for as long as the key is needed instead of deriving
+ * again. Nothing derived from the password other than the key itself is kept, and nothing is
+ * persisted; {@link #release} zeroes one key and {@link #wipe()} all of them.
+ */
+public class KeyDerivationCache {
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	private static final String HMAC_SHA512 = "HmacSHA512";
+	// the app vault, SecureKeychain and one being replaced
+	private static final int MAX_CACHED_KEYS = 4;
+
+	private static final SecureRandom sRandom = new SecureRandom();
+
+	// handle -> key, least recently used first
+	private static final LinkedHashMap<String, byte[]> sKeys =
+		new LinkedHashMap<String, byte[]>(MAX_CACHED_KEYS, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+				if (size() > MAX_CACHED_KEYS) {
+					Arrays.fill(eldest.getValue(), (byte) 0);
+					return true;
+				}
+				return false;
+			}
+		};
+
+	/** Derives the key and returns a new handle for it. */
+	public static String derive(String password, String salt, int iterations, int keyBits)
+		throws GeneralSecurityException {
+		byte[] key = pbkdf2Sha512(password.getBytes(UTF_8), salt.getBytes(UTF_8), iterations, keyBits / 8);
+		String handle = newHandle();
+		synchronized (KeyDerivationCache.class) {
+			sKeys.put(handle, key);
+		}
+		return handle;
+	}
+
+	/** The key behind {@code handle}; callers must not modify or keep it. */
+	public static byte[] getKey(String handle) throws InvalidKeyException {
+		synchronized (KeyDerivationCache.class) {
+			byte[] key = sKeys.get(handle);
+			if (key == null) {
+				throw new InvalidKeyException("unknown or wiped key handle");
+			}
+			return key;
+		}
+	}
+
+	/** Zeroes and forgets the key behind {@code handle}, if it is still there. */
+	public static void release(String handle) {
+		synchronized (KeyDerivationCache.class) {
+			byte[] key = sKeys.remove(handle);
+			if (key != null) {
+				Arrays.fill(key, (byte) 0);
+			}
+		}
+	}
+
+	public static void wipe() {
+		synchronized (KeyDerivationCache.class) {
+			for (Iterator<byte[]> it = sKeys.values().iterator(); it.hasNext(); ) {
+				Arrays.fill(it.next(), (byte) 0);
+				it.remove();
+			}
+		}
+	}
+
+	private static String newHandle() {
+		byte[] bytes = new byte[16];
+		sRandom.nextBytes(bytes);
+		return toHex(bytes);
+	}
+
+	/** RFC 8018 PBKDF2; PBKDF2WithHmacSHA512 is only available from API 26. */
+	static byte[] pbkdf2Sha512(byte[] password, byte[] salt, int iterations, int keyLength)
+		throws GeneralSecurityException {
+		Mac mac = Mac.getInstance(HMAC_SHA512);
+		mac.init(new SecretKeySpec(password, HMAC_SHA512));
+		int hLen = mac.getMacLength();
+		int blocks = (keyLength + hLen - 1) / hLen;
+		byte[] out = new byte[keyLength];
+		byte[] u = new byte[hLen];
+		byte[] t = new byte[hLen];
+		for (int block = 1; block <= blocks; block++) {
+			mac.update(salt);
+			mac.update((byte) (block >>> 24));
+			mac.update((byte) (block >>> 16));
+			mac.update((byte) (block >>> 8));
+			mac.update((byte) block);
+			mac.doFinal(u, 0);
+			System.arraycopy(u, 0, t, 0, hLen);
+			for (int i = 1; i < iterations; i++) {
+				mac.update(u);
+				mac.doFinal(u, 0);
+				for (int j = 0; j < hLen; j++) {
+					t[j] ^= u[j];
+				}
+			}
+			int offset = (block - 1) * hLen;
+			System.arraycopy(t, 0, out, offset, Math.min(hLen, keyLength - offset));
+		}
+		Arrays.fill(u, (byte) 0);
+		Arrays.fill(t, (byte) 0);
+		return out;
+	}
+
+	public static String toHex(byte[] bytes) {
+		char[] hex = "0123456789abcdef".toCharArray();
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = hex[(bytes[i] >> 4) & 0xf];
+			chars[i * 2 + 1] = hex[bytes[i] & 0xf];
+		}
+		return new String(chars);
+	}
+
+	public static byte[] fromHex(String hex) {
+		byte[] bytes = new byte[hex.length() / 2];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+		}
+		return bytes;
+	}
+}
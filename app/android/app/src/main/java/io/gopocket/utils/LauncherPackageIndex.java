@@ -0,0 +1,163 @@
+package io.paliwallet.utils;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.SharedPreferences;
+import android.content.pm.ChangedPackages;
+import android.content.pm.ResolveInfo;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.provider.Settings;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Installed apps with a launcher activity, other than this one. Built with a single
+ * ACTION_MAIN / CATEGORY_LAUNCHER query, kept current by PACKAGE_ADDED / PACKAGE_REMOVED and
+ * persisted, so later launches only re-check the packages that changed meanwhile (API 26+).
+ */
+public class LauncherPackageIndex {
+	private static final String PREFS_NAME = "launcher_package_index";
+	private static final String KEY_PACKAGES = "packages";
+	private static final String KEY_BOOT_COUNT = "boot_count";
+	private static final String KEY_SEQUENCE = "sequence";
+
+	public interface Listener {
+		void onLauncherPackagesChanged();
+	}
+
+	private static LauncherPackageIndex sInstance;
+
+	private final Context mContext;
+	private final SharedPreferences mPrefs;
+	private Set<String> mPackages;
+	private int mSequence;
+	private Listener mListener;
+
+	public static synchronized LauncherPackageIndex getInstance(Context context) {
+		if (sInstance == null) {
+			sInstance = new LauncherPackageIndex(context.getApplicationContext());
+		}
+		return sInstance;
+	}
+
+	private LauncherPackageIndex(Context context) {
+		mContext = context;
+		mPrefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+	}
+
+	public synchronized void setListener(Listener listener) {
+		mListener = listener;
+	}
+
+	/** Loads the index on first use; {@code handler} receives the package broadcasts. */
+	public synchronized List<String> getPackages(Handler handler) {
+		if (mPackages == null) {
+			load();
+			IntentFilter filter = new IntentFilter();
+			filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+			filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+			filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+			filter.addDataScheme("package");
+			mContext.registerReceiver(mReceiver, filter, null, handler);
+		}
+		return new ArrayList<>(mPackages);
+	}
+
+	private void load() {
+		Set<String> saved = mPrefs.getStringSet(KEY_PACKAGES, null);
+		if (saved != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+			&& mPrefs.getInt(KEY_BOOT_COUNT, -1) == getBootCount()) {
+			mPackages = new HashSet<>(saved);
+			mSequence = mPrefs.getInt(KEY_SEQUENCE, 0);
+			ChangedPackages changed = mContext.getPackageManager().getChangedPackages(mSequence);
+			if (changed != null) {
+				for (String packageName : changed.getPackageNames()) {
+					refresh(packageName);
+				}
+				mSequence = changed.getSequenceNumber();
+			}
+		} else {
+			// Sequence numbers restart on reboot, so a full scan is needed then.
+			mPackages = queryAll();
+			mSequence = 0;
+		}
+		save();
+	}
+
+	private Set<String> queryAll() {
+		Intent i = new Intent(Intent.ACTION_MAIN);
+		i.addCategory(Intent.CATEGORY_LAUNCHER);
+		List<ResolveInfo> resolveInfos = mContext.getPackageManager().queryIntentActivities(i, 0);
+		Set<String> packages = new HashSet<>();
+		String hostPackageName = mContext.getPackageName();
+		if (resolveInfos != null) {
+			for (ResolveInfo info : resolveInfos) {
+				String packageName = info.activityInfo.packageName;
+				if (!hostPackageName.equals(packageName)) {
+					packages.add(packageName);
+				}
+			}
+		}
+		return packages;
+	}
+
+	private boolean refresh(String packageName) {
+		if (packageName == null || packageName.equals(mContext.getPackageName())) {
+			return false;
+		}
+		Intent i = new Intent(Intent.ACTION_MAIN);
+		i.addCategory(Intent.CATEGORY_LAUNCHER);
+		i.setPackage(packageName);
+		List<ResolveInfo> resolveInfos = mContext.getPackageManager().queryIntentActivities(i, 0);
+		if (resolveInfos == null || resolveInfos.isEmpty()) {
+			return mPackages.remove(packageName);
+		}
+		return mPackages.add(packageName);
+	}
+
+	private void save() {
+		SharedPreferences.Editor editor = mPrefs.edit().putStringSet(KEY_PACKAGES, new HashSet<>(mPackages));
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+			// null means nothing changed since mSequence
+			ChangedPackages changed = mContext.getPackageManager().getChangedPackages(mSequence);
+			if (changed != null) {
+				mSequence = changed.getSequenceNumber();
+			}
+			editor.putInt(KEY_SEQUENCE, mSequence);
+			editor.putInt(KEY_BOOT_COUNT, getBootCount());
+		}
+		editor.apply();
+	}
+
+	private int getBootCount() {
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N) {
+			return -1;
+		}
+		return Settings.Global.getInt(mContext.getContentResolver(), Settings.Global.BOOT_COUNT, -1);
+	}
+
+	private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
+		@Override
+		public void onReceive(Context context, Intent intent) {
+			Uri data = intent.getData();
+			Listener listener;
+			synchronized (LauncherPackageIndex.this) {
+				if (data == null || !refresh(data.getSchemeSpecificPart())) {
+					return;
+				}
+				save();
+				listener = mListener;
+			}
+			if (listener != null) {
+				listener.onLauncherPackagesChanged();
+			}
+		}
+	};
+}
@@ -0,0 +1,180 @@
+package io.paliwallet.utils;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.PowerManager;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static android.os.BatteryManager.BATTERY_STATUS_CHARGING;
+import static android.os.BatteryManager.BATTERY_STATUS_FULL;
+
+/**
+ * Battery level, charging state and power-save mode, kept in memory from a single long-lived
+ * ACTION_BATTERY_CHANGED / ACTION_POWER_SAVE_MODE_CHANGED registration. Listeners are told
+ * about changes at most once per {@link #COALESCE_MS}, and only when the whole-percent level,
+ * the battery state or power-save mode actually moved; ACTION_BATTERY_CHANGED also fires for
+ * every voltage and temperature change.
+ */
+public class PowerStateMonitor {
+	private static final String TAG = "PowerStateMonitor";
+	private static final long COALESCE_MS = 1000;
+	// at or below this level, unplugged, the app should hold back background refreshes
+	private static final double LOW_BATTERY_LEVEL = 0.15;
+
+	public interface Listener {
+		void onPowerStateChanged(PowerState state);
+	}
+
+	public static class PowerState {
+		public final double batteryLevel;
+		public final String batteryState;
+		public final boolean charging;
+		public final boolean powerSaveMode;
+
+		PowerState(double batteryLevel, String batteryState, boolean charging, boolean powerSaveMode) {
+			this.batteryLevel = batteryLevel;
+			this.batteryState = batteryState;
+			this.charging = charging;
+			this.powerSaveMode = powerSaveMode;
+		}
+
+		public boolean isLowPower() {
+			return powerSaveMode || (!"charging".equals(batteryState) && !"full".equals(batteryState)
+				&& batteryLevel >= 0 && batteryLevel <= LOW_BATTERY_LEVEL);
+		}
+
+		boolean sameAs(PowerState other) {
+			return other != null && Math.round(batteryLevel * 100) == Math.round(other.batteryLevel * 100)
+				&& batteryState.equals(other.batteryState) && charging == other.charging
+				&& powerSaveMode == other.powerSaveMode;
+		}
+
+		public WritableMap toMap() {
+			WritableMap map = Arguments.createMap();
+			map.putString("batteryState", batteryState);
+			map.putDouble("batteryLevel", batteryLevel);
+			map.putBoolean("isBatteryCharging", charging);
+			map.putBoolean("lowPowerMode", powerSaveMode);
+			map.putBoolean("isLowPower", isLowPower());
+			return map;
+		}
+	}
+
+	private static PowerStateMonitor sInstance;
+
+	private final Context mContext;
+	private final Handler mHandler;
+	private final CopyOnWriteArrayList<Listener> mListeners = new CopyOnWriteArrayList<>();
+	private volatile PowerState mState;
+	// last state handed to listeners; only touched on mHandler
+	private PowerState mDispatched;
+	private boolean mDispatchPending;
+
+	public static synchronized PowerStateMonitor getInstance(Context context) {
+		if (sInstance == null) {
+			sInstance = new PowerStateMonitor(context.getApplicationContext());
+		}
+		return sInstance;
+	}
+
+	private PowerStateMonitor(Context context) {
+		mContext = context;
+		HandlerThread thread = new HandlerThread(TAG, android.os.Process.THREAD_PRIORITY_BACKGROUND);
+		thread.start();
+		mHandler = new Handler(thread.getLooper());
+
+		// ACTION_BATTERY_CHANGED is sticky: read the current state before the receiver can run,
+		// so its replay of the same intent is not reported as a change.
+		Intent battery = context.registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+		mState = fromIntent(battery, readPowerSaveMode());
+		mDispatched = mState;
+
+		IntentFilter filter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+			filter.addAction(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED);
+		}
+		context.registerReceiver(mReceiver, filter, null, mHandler);
+	}
+
+	public PowerState getState() {
+		return mState;
+	}
+
+	public void addListener(Listener listener) {
+		mListeners.addIfAbsent(listener);
+	}
+
+	public void removeListener(Listener listener) {
+		mListeners.remove(listener);
+	}
+
+	private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
+		@Override
+		public void onReceive(Context context, Intent intent) {
+			PowerState prev = mState;
+			if (Intent.ACTION_BATTERY_CHANGED.equals(intent.getAction())) {
+				mState = fromIntent(intent, prev.powerSaveMode);
+			} else {
+				mState = new PowerState(prev.batteryLevel, prev.batteryState, prev.charging, readPowerSaveMode());
+			}
+			if (!mDispatchPending) {
+				mDispatchPending = true;
+				mHandler.postDelayed(mDispatch, COALESCE_MS);
+			}
+		}
+	};
+
+	private final Runnable mDispatch = new Runnable() {
+		@Override
+		public void run() {
+			mDispatchPending = false;
+			PowerState state = mState;
+			if (state.sameAs(mDispatched)) {
+				return;
+			}
+			mDispatched = state;
+			for (Listener listener : mListeners) {
+				listener.onPowerStateChanged(state);
+			}
+		}
+	};
+
+	private boolean readPowerSaveMode() {
+		if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP) {
+			return false;
+		}
+		PowerManager powerManager = (PowerManager) mContext.getSystemService(Context.POWER_SERVICE);
+		return powerManager != null && powerManager.isPowerSaveMode();
+	}
+
+	private static PowerState fromIntent(Intent intent, boolean powerSaveMode) {
+		if (intent == null) {
+			return new PowerState(0, "unknown", false, powerSaveMode);
+		}
+		int batteryLevel = intent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+		int batteryScale = intent.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+		int isPlugged = intent.getIntExtra(BatteryManager.EXTRA_PLUGGED, -1);
+		int status = intent.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+
+		String batteryState = "unknown";
+		if (isPlugged == 0) {
+			batteryState = "unplugged";
+		} else if (status == BATTERY_STATUS_CHARGING) {
+			batteryState = "charging";
+		} else if (status == BATTERY_STATUS_FULL) {
+			batteryState = "full";
+		}
+		return new PowerState(batteryLevel / (float) batteryScale, batteryState,
+			status == BATTERY_STATUS_CHARGING, powerSaveMode);
+	}
+}
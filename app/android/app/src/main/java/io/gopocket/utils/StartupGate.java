@@ -0,0 +1,123 @@
+package io.paliwallet.utils;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactMarker;
+import com.facebook.react.bridge.ReactMarkerConstants;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startup milestones, in ms since Application.onCreate, and the "first frame" gate the worker
+ * pool waits on before starting the engine. The gate opens when the app's root view gets its
+ * first content (the CONTENT_APPEARED marker). While the UI is coming up, the worker bundle is
+ * read once on a background-priority thread so the worker later starts from the page cache.
+ * Milestones also go to {@link StartupTracer}, whose trace is written once the app is both
+ * interactive and has its engine ready.
+ */
+public class StartupGate {
+	private static final String TAG = "StartupGate";
+	private static final String WORKER_BUNDLE = "threads/NativeWorker.bundle";
+	private static final String[] TRACE_UNTIL = {"interactive", "engineReady"};
+
+	private static long sStartMs;
+	private static final Map<String, Long> sMarks = new LinkedHashMap<>();
+	private static final List<Runnable> sWaiters = new ArrayList<>();
+	private static boolean sFirstFrame;
+
+	private StartupGate() {
+	}
+
+	public static void onAppCreate(final Context context) {
+		sStartMs = SystemClock.uptimeMillis();
+		mark("appCreate");
+		ReactMarker.addListener(sMarkerListener);
+		Thread prewarm = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_BACKGROUND);
+				byte[] buffer = new byte[64 * 1024];
+				try (InputStream in = context.getAssets().open(WORKER_BUNDLE)) {
+					while (in.read(buffer) > 0) {
+						// only pulling the bundle into the page cache
+					}
+					mark("workerBundlePrewarmed");
+				} catch (IOException e) {
+					// debug builds load the worker from the packager
+					Log.d(TAG, "no " + WORKER_BUNDLE + " to prewarm");
+				}
+			}
+		}, TAG + "-prewarm");
+		prewarm.start();
+	}
+
+	public static void mark(String name) {
+		boolean done = true;
+		synchronized (sMarks) {
+			if (sMarks.containsKey(name)) {
+				return;
+			}
+			sMarks.put(name, SystemClock.uptimeMillis() - sStartMs);
+			for (String until : TRACE_UNTIL) {
+				done &= sMarks.containsKey(until);
+			}
+		}
+		StartupTracer.instant(name);
+		if (done) {
+			StartupTracer.finish();
+		}
+	}
+
+	/** Runs {@code waiter} once the first frame is up, on the calling thread if it already is. */
+	public static void whenFirstFrame(Runnable waiter) {
+		synchronized (sWaiters) {
+			if (!sFirstFrame) {
+				sWaiters.add(waiter);
+				return;
+			}
+		}
+		waiter.run();
+	}
+
+	public static WritableMap getTimings() {
+		WritableMap timings = Arguments.createMap();
+		synchronized (sMarks) {
+			for (Map.Entry<String, Long> entry : sMarks.entrySet()) {
+				timings.putDouble(entry.getKey(), entry.getValue());
+			}
+		}
+		return timings;
+	}
+
+	private static final ReactMarker.MarkerListener sMarkerListener = new ReactMarker.MarkerListener() {
+		@Override
+		public void logMarker(ReactMarkerConstants name, String tag, int instanceKey) {
+			if (name != ReactMarkerConstants.CONTENT_APPEARED) {
+				return;
+			}
+			mark("firstFrame");
+			List<Runnable> waiters;
+			synchronized (sWaiters) {
+				if (sFirstFrame) {
+					return;
+				}
+				sFirstFrame = true;
+				ReactMarker.removeListener(this);
+				waiters = new ArrayList<>(sWaiters);
+				sWaiters.clear();
+			}
+			for (Runnable waiter : waiters) {
+				waiter.run();
+			}
+		}
+	};
+}
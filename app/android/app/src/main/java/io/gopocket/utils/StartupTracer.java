@@ -0,0 +1,335 @@
+package io.paliwallet.utils;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Process;
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReactMarker;
+import com.facebook.react.bridge.ReactMarkerConstants;
+import com.facebook.react.bridge.WritableMap;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.paliwallet.BuildConfig;
+
+/**
+ * Cold start timeline, from process start to the app being interactive, written as a Chrome
+ * trace (JSON object format, opens in chrome://tracing and ui.perfetto.dev). Spans come from
+ * begin/end pairs on one thread, from React Native's START/END markers (bundle load, context
+ * and module creation, with the marker tag such as a module name in the span name), and from
+ * JS with its own timestamps; {@link StartupGate} milestones are instant events. Recording stops
+ * at {@link #finish()}, which writes the trace to files/startup-traces/, keeping the last few,
+ * with the number of native modules created by then.
+ */
+public class StartupTracer {
+	private static final String TAG = "StartupTracer";
+	private static final String TRACE_DIR = "startup-traces";
+	private static final int MAX_TRACE_FILES = 10;
+	// a cold start records a few hundred; past this something is looping
+	private static final int MAX_EVENTS = 5000;
+	// JS spans carry their own timestamps and go on their own track
+	private static final int JS_TID = 0;
+
+	private static class Event {
+		final String name;
+		final String category;
+		final long startNs;
+		// -1 for an instant event
+		final long durationNs;
+		final int tid;
+
+		Event(String name, String category, long startNs, long durationNs, int tid) {
+			this.name = name;
+			this.category = category;
+			this.startNs = startNs;
+			this.durationNs = durationNs;
+			this.tid = tid;
+		}
+	}
+
+	private static Context sContext;
+	private static long sBaseNs;
+	private static boolean sRecording;
+	private static final List<Event> sEvents = new ArrayList<>();
+	private static final Map<Integer, String> sThreadNames = new HashMap<>();
+	// module name -> instances created, over every context; kept after recording stops
+	private static final Map<String, Integer> sCreatedModules = new TreeMap<>();
+	// marker name without _START -> {start ns, tid} of the markers still open
+	private static final Map<String, ArrayDeque<long[]>> sOpenMarkers = new HashMap<>();
+	private static final ThreadLocal<ArrayDeque<Object[]>> sOpenSpans = new ThreadLocal<ArrayDeque<Object[]>>() {
+		@Override
+		protected ArrayDeque<Object[]> initialValue() {
+			return new ArrayDeque<>();
+		}
+	};
+
+	private StartupTracer() {
+	}
+
+	/** Starts recording; call first thing in Application.onCreate. */
+	public static void start(Context context) {
+		long now = System.nanoTime();
+		synchronized (sEvents) {
+			sContext = context.getApplicationContext();
+			sBaseNs = now;
+			sRecording = true;
+			if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+				// uptimeMillis and nanoTime are both CLOCK_MONOTONIC
+				long processStartNs = Process.getStartUptimeMillis() * 1000000L;
+				if (processStartNs < now) {
+					sBaseNs = processStartNs;
+					add("processStart", "app", processStartNs, now - processStartNs, Process.myTid());
+				}
+			}
+		}
+		ReactMarker.addListener(sMarkerListener);
+	}
+
+	/** Opens a span on this thread, closed by the next {@link #end()} on it. */
+	public static void begin(String name) {
+		sOpenSpans.get().push(new Object[]{name, System.nanoTime()});
+	}
+
+	public static void end() {
+		long now = System.nanoTime();
+		Object[] span = sOpenSpans.get().poll();
+		if (span == null) {
+			return;
+		}
+		long startNs = (Long) span[1];
+		synchronized (sEvents) {
+			add((String) span[0], "app", startNs, now - startNs, Process.myTid());
+		}
+	}
+
+	/**
+	 * A span measured in JS; times in ms on the performance.now() clock, which is CLOCK_MONOTONIC
+	 * like System.nanoTime when the JS engine provides nativePerformanceNow.
+	 */
+	public static void addJsSpan(String name, double startMs, double endMs) {
+		long startNs = (long) (startMs * 1e6);
+		synchronized (sEvents) {
+			add(name, "js", startNs, (long) ((endMs - startMs) * 1e6), JS_TID);
+		}
+	}
+
+	public static void instant(String name) {
+		long now = System.nanoTime();
+		synchronized (sEvents) {
+			add(name, "milestone", now, -1, Process.myTid());
+		}
+	}
+
+	public static void onModuleCreated(String name) {
+		synchronized (sCreatedModules) {
+			Integer count = sCreatedModules.get(name);
+			sCreatedModules.put(name, count == null ? 1 : count + 1);
+		}
+		instant("createModule " + name);
+	}
+
+	/** Module name -> instances created so far, over the app's and the workers' contexts. */
+	public static WritableMap getCreatedModules() {
+		WritableMap map = Arguments.createMap();
+		synchronized (sCreatedModules) {
+			for (Map.Entry<String, Integer> entry : sCreatedModules.entrySet()) {
+				map.putInt(entry.getKey(), entry.getValue());
+			}
+		}
+		return map;
+	}
+
+	/** Stops recording and writes the trace in the background. */
+	public static void finish() {
+		synchronized (sEvents) {
+			if (!sRecording) {
+				return;
+			}
+			sRecording = false;
+		}
+		ReactMarker.removeListener(sMarkerListener);
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Log.i(TAG, "startup trace written to " + export());
+				} catch (IOException e) {
+					Log.w(TAG, "could not write the startup trace", e);
+				}
+			}
+		}, TAG);
+		writer.start();
+	}
+
+	/** Writes what was recorded so far to a new trace file and returns its path. */
+	public static String export() throws IOException {
+		List<Event> events;
+		Map<Integer, String> threadNames;
+		long baseNs;
+		Context context;
+		synchronized (sEvents) {
+			events = new ArrayList<>(sEvents);
+			threadNames = new HashMap<>(sThreadNames);
+			baseNs = sBaseNs;
+			context = sContext;
+		}
+		if (context == null) {
+			throw new IOException("not started");
+		}
+		threadNames.put(JS_TID, "JS");
+		File dir = new File(context.getFilesDir(), TRACE_DIR);
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("cannot create " + dir);
+		}
+		String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.US).format(new Date());
+		File file = new File(dir, "startup-" + BuildConfig.VERSION_NAME + "-" + BuildConfig.VERSION_CODE + "-" + stamp + ".json");
+		int pid = Process.myPid();
+		try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+			out.write("{\"displayTimeUnit\":\"ms\",\"otherData\":");
+			JSONObject otherData = new JSONObject();
+			otherData.put("versionName", BuildConfig.VERSION_NAME);
+			otherData.put("versionCode", BuildConfig.VERSION_CODE);
+			otherData.put("device", Build.MANUFACTURER + " " + Build.MODEL);
+			otherData.put("sdkInt", Build.VERSION.SDK_INT);
+			synchronized (sCreatedModules) {
+				otherData.put("createdModules", new JSONObject(sCreatedModules));
+			}
+			out.write(otherData.toString());
+			out.write(",\"traceEvents\":[");
+			boolean first = true;
+			for (Map.Entry<Integer, String> thread : threadNames.entrySet()) {
+				JSONObject event = new JSONObject();
+				event.put("ph", "M");
+				event.put("name", "thread_name");
+				event.put("pid", pid);
+				event.put("tid", thread.getKey());
+				event.put("args", new JSONObject().put("name", thread.getValue()));
+				first = writeEvent(out, event, first);
+			}
+			for (Event e : events) {
+				JSONObject event = new JSONObject();
+				event.put("name", e.name);
+				event.put("cat", e.category);
+				event.put("pid", pid);
+				event.put("tid", e.tid);
+				event.put("ts", (e.startNs - baseNs) / 1000.0);
+				if (e.durationNs < 0) {
+					event.put("ph", "i");
+					event.put("s", "p");
+				} else {
+					event.put("ph", "X");
+					event.put("dur", e.durationNs / 1000.0);
+				}
+				first = writeEvent(out, event, first);
+			}
+			out.write("]}");
+		} catch (JSONException e) {
+			throw new IOException(e);
+		}
+		prune(dir);
+		return file.getAbsolutePath();
+	}
+
+	private static boolean writeEvent(Writer out, JSONObject event, boolean first) throws IOException {
+		if (!first) {
+			out.write(',');
+		}
+		out.write(event.toString());
+		out.write('\n');
+		return false;
+	}
+
+	private static void prune(File dir) {
+		File[] files = dir.listFiles();
+		if (files == null || files.length <= MAX_TRACE_FILES) {
+			return;
+		}
+		Arrays.sort(files, new Comparator<File>() {
+			@Override
+			public int compare(File a, File b) {
+				return Long.compare(b.lastModified(), a.lastModified());
+			}
+		});
+		for (int i = MAX_TRACE_FILES; i < files.length; i++) {
+			if (!files[i].delete()) {
+				Log.w(TAG, "could not delete " + files[i]);
+			}
+		}
+	}
+
+	// callers hold sEvents
+	private static void add(String name, String category, long startNs, long durationNs, int tid) {
+		if (!sRecording || sEvents.size() >= MAX_EVENTS) {
+			return;
+		}
+		sEvents.add(new Event(name, category, startNs, durationNs, tid));
+		if (tid != JS_TID && !sThreadNames.containsKey(tid)) {
+			sThreadNames.put(tid, Thread.currentThread().getName());
+		}
+	}
+
+	private static final ReactMarker.MarkerListener sMarkerListener = new ReactMarker.MarkerListener() {
+		@Override
+		public void logMarker(ReactMarkerConstants marker, String tag, int instanceKey) {
+			long now = System.nanoTime();
+			String name = marker.name();
+			int tid = Process.myTid();
+			synchronized (sEvents) {
+				if (name.endsWith("_START")) {
+					String key = name.substring(0, name.length() - "_START".length()) + (tag != null ? " " + tag : "");
+					ArrayDeque<long[]> open = sOpenMarkers.get(key);
+					if (open == null) {
+						open = new ArrayDeque<>();
+						sOpenMarkers.put(key, open);
+					}
+					open.add(new long[]{now, tid});
+				} else if (name.endsWith("_END")) {
+					String key = name.substring(0, name.length() - "_END".length()) + (tag != null ? " " + tag : "");
+					ArrayDeque<long[]> open = sOpenMarkers.get(key);
+					long[] start = open != null ? takeStart(open, tid) : null;
+					if (start != null) {
+						// worker contexts log the same markers, on their own threads
+						add(key, "react", start[0], now - start[0], (int) start[1]);
+					}
+				} else if (marker == ReactMarkerConstants.CONTENT_APPEARED) {
+					add("CONTENT_APPEARED", "react", now, -1, tid);
+				}
+			}
+		}
+	};
+
+	// the oldest open marker started on this thread, else the oldest one
+	private static long[] takeStart(ArrayDeque<long[]> open, int tid) {
+		Iterator<long[]> it = open.iterator();
+		while (it.hasNext()) {
+			long[] start = it.next();
+			if (start[1] == tid) {
+				it.remove();
+				return start;
+			}
+		}
+		return open.poll();
+	}
+}
@@ -0,0 +1,308 @@
+package io.paliwallet.utils;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Build;
+import android.os.Environment;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.StatFs;
+import android.util.Log;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Watches free space on the data partition, where PaliWallet.db, CodePush bundles and cached
+ * media live. Free space is sampled with StatFs every {@link #CHECK_INTERVAL_MS} and on the
+ * system's storage low / ok broadcasts, and mapped to a level with hysteresis: a level is only
+ * left once free space is {@link #HYSTERESIS} times above its threshold, so the app does not
+ * flap around a boundary. Whenever the level rises, the registered eviction hooks run, in
+ * ascending priority, before listeners are told.
+ */
+public class StoragePressureMonitor {
+	private static final String TAG = "StoragePressureMonitor";
+
+	public static final int LEVEL_NORMAL = 0;
+	public static final int LEVEL_LOW = 1;
+	public static final int LEVEL_CRITICAL = 2;
+
+	private static final long LOW_BYTES = 512L * 1024 * 1024;
+	private static final long CRITICAL_BYTES = 128L * 1024 * 1024;
+	private static final double HYSTERESIS = 1.25;
+	private static final long CHECK_INTERVAL_MS = 5 * 60 * 1000;
+
+	/** Hooks that free space through the cache that owns it, so its live index stays right. */
+	public static final int PRIORITY_OWNED_CACHE = 0;
+	/** Hooks that delete files nobody holds open; they run last. */
+	public static final int PRIORITY_SWEEP = 100;
+
+	public interface Listener {
+		void onStoragePressureChanged(int level, long freeBytes, long totalBytes);
+	}
+
+	public interface EvictionHook {
+		/** Frees what it can for {@code level}; returns the bytes released, or -1 if unknown. */
+		long evict(int level);
+	}
+
+	private static StoragePressureMonitor sInstance;
+
+	private final Context mContext;
+	private final Handler mHandler;
+	private final CopyOnWriteArrayList<Listener> mListeners = new CopyOnWriteArrayList<>();
+	// sorted by priority, then registration order; guarded by itself
+	private final List<HookEntry> mHooks = new ArrayList<>();
+	private volatile int mLevel = LEVEL_NORMAL;
+	private volatile long mFreeBytes = -1;
+	private volatile long mTotalBytes = -1;
+	private boolean mStarted;
+
+	public static synchronized StoragePressureMonitor getInstance(Context context) {
+		if (sInstance == null) {
+			sInstance = new StoragePressureMonitor(context.getApplicationContext());
+		}
+		return sInstance;
+	}
+
+	private StoragePressureMonitor(Context context) {
+		mContext = context;
+		HandlerThread thread = new HandlerThread(TAG, android.os.Process.THREAD_PRIORITY_BACKGROUND);
+		thread.start();
+		mHandler = new Handler(thread.getLooper());
+	}
+
+	/** Starts periodic checks; the first one runs right away on the monitor thread. */
+	public synchronized void start() {
+		if (mStarted) {
+			return;
+		}
+		mStarted = true;
+		IntentFilter filter = new IntentFilter();
+		filter.addAction(Intent.ACTION_DEVICE_STORAGE_LOW);
+		filter.addAction(Intent.ACTION_DEVICE_STORAGE_OK);
+		mContext.registerReceiver(mReceiver, filter, null, mHandler);
+		mHandler.post(mPeriodicCheck);
+	}
+
+	/** Re-samples free space soon, e.g. after a large download or database write. */
+	public void checkNow() {
+		mHandler.post(mCheck);
+	}
+
+	public int getLevel() {
+		return mLevel;
+	}
+
+	public void addListener(Listener listener) {
+		mListeners.addIfAbsent(listener);
+	}
+
+	public void removeListener(Listener listener) {
+		mListeners.remove(listener);
+	}
+
+	/**
+	 * Registers {@code hook} under {@code name}, replacing any hook already using that name.
+	 * Hooks run in ascending {@code priority}, then in registration order.
+	 */
+	public void registerEvictionHook(String name, int priority, EvictionHook hook) {
+		synchronized (mHooks) {
+			removeHook(name);
+			int i = 0;
+			while (i < mHooks.size() && mHooks.get(i).priority <= priority) {
+				i++;
+			}
+			mHooks.add(i, new HookEntry(name, priority, hook));
+		}
+	}
+
+	public void unregisterEvictionHook(String name) {
+		synchronized (mHooks) {
+			removeHook(name);
+		}
+	}
+
+	private void removeHook(String name) {
+		for (Iterator<HookEntry> it = mHooks.iterator(); it.hasNext(); ) {
+			if (it.next().name.equals(name)) {
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * A hook that empties {@code dir}, keeping the directory itself, once {@code minLevel} is
+	 * reached. Entries of {@code dir} named in {@code keep} are left alone, for caches that are
+	 * open and evicted by their own hook.
+	 */
+	public static EvictionHook directoryHook(final File dir, final int minLevel, final Collection<String> keep) {
+		return new EvictionHook() {
+			@Override
+			public long evict(int level) {
+				if (level < minLevel) {
+					return 0;
+				}
+				File[] files = dir.listFiles();
+				if (files == null) {
+					return 0;
+				}
+				long freed = 0;
+				for (File file : files) {
+					if (!keep.contains(file.getName())) {
+						freed += delete(file);
+					}
+				}
+				return freed;
+			}
+		};
+	}
+
+	private static long delete(File file) {
+		if (file.isDirectory()) {
+			long freed = deleteContents(file);
+			file.delete();
+			return freed;
+		}
+		long length = file.length();
+		return file.delete() ? length : 0;
+	}
+
+	private static long deleteContents(File dir) {
+		File[] files = dir.listFiles();
+		if (files == null) {
+			return 0;
+		}
+		long freed = 0;
+		for (File file : files) {
+			freed += delete(file);
+		}
+		return freed;
+	}
+
+	public WritableMap toMap() {
+		WritableMap map = Arguments.createMap();
+		map.putString("level", levelName(mLevel));
+		map.putDouble("freeBytes", mFreeBytes);
+		map.putDouble("totalBytes", mTotalBytes);
+		return map;
+	}
+
+	public static String levelName(int level) {
+		switch (level) {
+			case LEVEL_CRITICAL:
+				return "critical";
+			case LEVEL_LOW:
+				return "low";
+			default:
+				return "normal";
+		}
+	}
+
+	static int levelFor(long freeBytes, int current) {
+		if (freeBytes < 0) {
+			return current;
+		}
+		if (freeBytes < CRITICAL_BYTES
+			|| (current == LEVEL_CRITICAL && freeBytes < CRITICAL_BYTES * HYSTERESIS)) {
+			return LEVEL_CRITICAL;
+		}
+		if (freeBytes < LOW_BYTES || (current >= LEVEL_LOW && freeBytes < LOW_BYTES * HYSTERESIS)) {
+			return LEVEL_LOW;
+		}
+		return LEVEL_NORMAL;
+	}
+
+	private final Runnable mPeriodicCheck = new Runnable() {
+		@Override
+		public void run() {
+			check();
+			mHandler.postDelayed(this, CHECK_INTERVAL_MS);
+		}
+	};
+
+	private final Runnable mCheck = new Runnable() {
+		@Override
+		public void run() {
+			check();
+		}
+	};
+
+	private final BroadcastReceiver mReceiver = new BroadcastReceiver() {
+		@Override
+		public void onReceive(Context context, Intent intent) {
+			check();
+		}
+	};
+
+	// runs on mHandler only
+	private void check() {
+		int prev = mLevel;
+		sample();
+		int level = levelFor(mFreeBytes, prev);
+		if (level > prev) {
+			evict(level);
+			sample();
+			level = levelFor(mFreeBytes, prev);
+		}
+		if (level == prev) {
+			return;
+		}
+		mLevel = level;
+		Log.i(TAG, "storage " + levelName(level) + ", free=" + mFreeBytes);
+		for (Listener listener : mListeners) {
+			listener.onStoragePressureChanged(level, mFreeBytes, mTotalBytes);
+		}
+	}
+
+	private void evict(int level) {
+		List<HookEntry> hooks;
+		synchronized (mHooks) {
+			hooks = new ArrayList<>(mHooks);
+		}
+		for (HookEntry entry : hooks) {
+			try {
+				long freed = entry.hook.evict(level);
+				Log.i(TAG, entry.name + " freed " + freed + " bytes at " + levelName(level));
+			} catch (Exception e) {
+				Log.e(TAG, "eviction hook " + entry.name + " failed", e);
+			}
+		}
+	}
+
+	private static class HookEntry {
+		final String name;
+		final int priority;
+		final EvictionHook hook;
+
+		HookEntry(String name, int priority, EvictionHook hook) {
+			this.name = name;
+			this.priority = priority;
+			this.hook = hook;
+		}
+	}
+
+	private void sample() {
+		try {
+			StatFs stat = new StatFs(Environment.getDataDirectory().getAbsolutePath());
+			if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2) {
+				mFreeBytes = (long) stat.getAvailableBlocks() * stat.getBlockSize();
+				mTotalBytes = (long) stat.getBlockCount() * stat.getBlockSize();
+			} else {
+				mFreeBytes = stat.getAvailableBytes();
+				mTotalBytes = stat.getTotalBytes();
+			}
+		} catch (Exception e) {
+			Log.e(TAG, "StatFs failed", e);
+		}
+	}
+}
@@ -0,0 +1,112 @@
+package io.paliwallet.utils;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Worker request queue metrics, taken from the messages crossing the channel: a request is a
+ * message from the app with an {@code _id} and an {@code api}, and its reply is the worker's
+ * message with the same {@code _id} and status ok or error. Requests are grouped by route,
+ * {@code api} or {@code controller:<Name>}.
+ */
+public class WorkerQueueMetrics {
+	private static class Started {
+		final String route;
+		final long startNs;
+
+		Started(String route, long startNs) {
+			this.route = route;
+			this.startNs = startNs;
+		}
+	}
+
+	private static final Object sLock = new Object();
+	private static final Map<String, Started> sInFlight = new HashMap<>();
+	// route -> {calls, total latency ns, max latency ns}
+	private static final Map<String, long[]> sRoutes = new HashMap<>();
+	private static long sDispatched;
+	private static long sCompleted;
+	private static long sFailed;
+	private static int sMaxInFlight;
+
+	private WorkerQueueMetrics() {
+	}
+
+	public static void onRequest(ReadableMap message) {
+		if (!message.hasKey("_id") || !message.hasKey("api") || message.hasKey("status")) {
+			return;
+		}
+		String route = message.getString("api");
+		if ("controller".equals(route) && message.hasKey("args")) {
+			ReadableArray args = message.getArray("args");
+			if (args != null && args.size() > 0 && args.getType(0) == ReadableType.String) {
+				route = route + ":" + args.getString(0);
+			}
+		}
+		synchronized (sLock) {
+			sDispatched++;
+			sInFlight.put(message.getString("_id"), new Started(route, System.nanoTime()));
+			sMaxInFlight = Math.max(sMaxInFlight, sInFlight.size());
+		}
+	}
+
+	public static void onReply(ReadableMap message) {
+		if (!message.hasKey("_id") || !message.hasKey("status")) {
+			return;
+		}
+		String status = message.getString("status");
+		boolean ok = "ok".equals(status);
+		if (!ok && !"error".equals(status)) {
+			return;
+		}
+		synchronized (sLock) {
+			Started started = sInFlight.remove(message.getString("_id"));
+			if (started == null) {
+				return;
+			}
+			long latency = System.nanoTime() - started.startNs;
+			if (ok) {
+				sCompleted++;
+			} else {
+				sFailed++;
+			}
+			long[] route = sRoutes.get(started.route);
+			if (route == null) {
+				route = new long[3];
+				sRoutes.put(started.route, route);
+			}
+			route[0]++;
+			route[1] += latency;
+			route[2] = Math.max(route[2], latency);
+		}
+	}
+
+	/** Queue depth, request counts and per-route latency. */
+	public static WritableMap getStats() {
+		WritableMap map = Arguments.createMap();
+		synchronized (sLock) {
+			map.putInt("inFlight", sInFlight.size());
+			map.putInt("maxInFlight", sMaxInFlight);
+			map.putDouble("dispatched", sDispatched);
+			map.putDouble("completed", sCompleted);
+			map.putDouble("failed", sFailed);
+			WritableMap routes = Arguments.createMap();
+			for (Map.Entry<String, long[]> entry : sRoutes.entrySet()) {
+				long[] values = entry.getValue();
+				WritableMap route = Arguments.createMap();
+				route.putDouble("calls", values[0]);
+				route.putDouble("avgMs", values[1] / 1e6 / values[0]);
+				route.putDouble("maxMs", values[2] / 1e6);
+				routes.putMap(entry.getKey(), route);
+			}
+			map.putMap("routes", routes);
+		}
+		return map;
+	}
+}
@@ -0,0 +1,72 @@
+package io.paliwallet.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import io.paliwallet.utils.CryptUtil;
+
+/**
+ * The Base64 legs of RNToolsManager.encryptBase64 / decryptBase64. android.util.Base64 is not
+ * available on the desktop JVM, so java.util.Base64 (the same NO_WRAP alphabet) stands in.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Base64Benchmark {
+	private static final String KEY = "fajfladsjfkladsfjadlksfjsakdlfja";
+
+	@Param({"64", "1024", "16384"})
+	public int size;
+
+	private byte[] mPlain;
+	private String mEncoded;
+	private String mEncrypted;
+
+	@Setup
+	public void setUp() throws Exception {
+		mPlain = new byte[size];
+		new Random(size).nextBytes(mPlain);
+		mEncoded = Base64.getEncoder().encodeToString(mPlain);
+		mEncrypted = Base64.getEncoder().encodeToString(CryptUtil.encrypt(mPlain, KEY));
+	}
+
+	@Benchmark
+	public String encode() {
+		return Base64.getEncoder().encodeToString(mPlain);
+	}
+
+	@Benchmark
+	public byte[] decode() {
+		return Base64.getDecoder().decode(mEncoded);
+	}
+
+	/** encryptBase64 end to end: decode, encrypt, encode. */
+	@Benchmark
+	public String encryptBase64() throws Exception {
+		byte[] bytes = CryptUtil.encrypt(Base64.getDecoder().decode(mEncoded), KEY);
+		return Base64.getEncoder().encodeToString(bytes);
+	}
+
+	/** decryptBase64 end to end: decode, decrypt, UTF-8 string. */
+	@Benchmark
+	public String decryptBase64() throws Exception {
+		byte[] bytes = CryptUtil.decrypt(Base64.getDecoder().decode(mEncrypted), KEY);
+		return new String(bytes, "utf-8");
+	}
+}
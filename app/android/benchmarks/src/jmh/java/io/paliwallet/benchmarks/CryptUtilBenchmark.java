@@ -0,0 +1,91 @@
+package io.paliwallet.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import io.paliwallet.utils.CryptUtil;
+
+/**
+ * CBC encrypt/decrypt before (legacy*) and after the Cipher/key caching, plus the GCM and
+ * direct ByteBuffer paths. Compare gc.alloc.rate.norm for bytes allocated per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptUtilBenchmark {
+	// same shape as the key CryptUtils.js passes
+	private static final String KEY = "fajfladsjfkladsfjadlksfjsakdlfja";
+
+	@Param({"64", "1024", "16384"})
+	public int size;
+
+	private byte[] plain;
+	private byte[] cbc;
+	private byte[] gcm;
+	private ByteBuffer plainBuffer;
+	private ByteBuffer outBuffer;
+
+	@Setup
+	public void setUp() throws Exception {
+		plain = new byte[size];
+		new Random(size).nextBytes(plain);
+		cbc = CryptUtil.encrypt(plain, KEY);
+		gcm = CryptUtil.encrypt(plain, KEY, CryptUtil.AES_GCM);
+		plainBuffer = ByteBuffer.allocateDirect(size);
+		plainBuffer.put(plain).flip();
+		outBuffer = ByteBuffer.allocateDirect(CryptUtil.getEncryptedSize(size, CryptUtil.AES_GCM));
+	}
+
+	@Benchmark
+	public byte[] legacyEncrypt() throws Exception {
+		return LegacyCryptUtil.encrypt(plain, KEY);
+	}
+
+	@Benchmark
+	public byte[] legacyDecrypt() throws Exception {
+		return LegacyCryptUtil.decrypt(cbc, KEY);
+	}
+
+	@Benchmark
+	public byte[] encrypt() throws Exception {
+		return CryptUtil.encrypt(plain, KEY);
+	}
+
+	@Benchmark
+	public byte[] decrypt() throws Exception {
+		return CryptUtil.decrypt(cbc, KEY);
+	}
+
+	@Benchmark
+	public byte[] gcmEncrypt() throws Exception {
+		return CryptUtil.encrypt(plain, KEY, CryptUtil.AES_GCM);
+	}
+
+	@Benchmark
+	public byte[] gcmDecrypt() throws Exception {
+		return CryptUtil.decrypt(gcm, KEY, CryptUtil.AES_GCM);
+	}
+
+	@Benchmark
+	public int gcmEncryptDirectBuffer() throws Exception {
+		plainBuffer.rewind();
+		outBuffer.clear();
+		return CryptUtil.encrypt(plainBuffer, outBuffer, KEY, CryptUtil.AES_GCM);
+	}
+}
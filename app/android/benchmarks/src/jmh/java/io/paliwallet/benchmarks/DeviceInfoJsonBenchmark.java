@@ -0,0 +1,69 @@
+package io.paliwallet.benchmarks;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The JSONObject building and toString of RNToolsManager.getDeviceInfoSync with fixed
+ * values in place of the Build / PackageManager lookups, so only the serialization is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeviceInfoJsonBenchmark {
+
+	@Param({"5", "19"})
+	public int packageCount;
+
+	private List<String> mPackageNames;
+
+	@Setup
+	public void setUp() {
+		mPackageNames = new ArrayList<>();
+		for (int i = 0; i < packageCount; i++) {
+			mPackageNames.add("com.example.installed.app" + i);
+		}
+	}
+
+	@Benchmark
+	public String buildDeviceInfo() throws Exception {
+		JSONObject deviceInfo = new JSONObject();
+		deviceInfo.put("manufacturer", "Google");
+		deviceInfo.put("brand", "google");
+		deviceInfo.put("model", "Pixel 7");
+		deviceInfo.put("device", "panther");
+		deviceInfo.put("product", "panther");
+		deviceInfo.put("sdk_int", 33);
+		deviceInfo.put("net_type", "wifi");
+		deviceInfo.put("lang", "en_US");
+		deviceInfo.put("resolution", "1080x2400");
+		deviceInfo.put("density", "2.63");
+		deviceInfo.put("freeDiskStorage", 52345678912d);
+		deviceInfo.put("batteryLevel", 0.87d);
+		deviceInfo.put("isBatteryCharging", false);
+		deviceInfo.put("isEmulator", false);
+		deviceInfo.put("isAV", false);
+		deviceInfo.put("abis", new JSONArray(new String[]{"arm64-v8a", "armeabi-v7a", "armeabi"}));
+		deviceInfo.put("pkgs", new JSONArray(mPackageNames));
+		deviceInfo.put("pkgsSize", mPackageNames.size());
+		return deviceInfo.toString();
+	}
+}
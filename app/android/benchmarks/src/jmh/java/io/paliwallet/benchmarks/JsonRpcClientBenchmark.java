@@ -0,0 +1,163 @@
+package io.paliwallet.benchmarks;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import io.paliwallet.utils.JsonRpcClient;
+import okhttp3.OkHttpClient;
+
+/**
+ * JsonRpcClient against an in-process stand-in RPC server that answers eth_getBalance with a
+ * fixed per-request delay, like a remote node would. Each invocation fires {@code calls}
+ * concurrent requests for {@code distinct} different accounts, with caller ids that collide on
+ * purpose, and checks every response came back with its own id. {@code maxBatch} 1 is the
+ * one-request-per-call baseline; {@code distinct} equal to {@code calls} leaves nothing to
+ * coalesce. Results are not cached between invocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonRpcClientBenchmark {
+
+	@Param({"1", "32"})
+	public int maxBatch;
+
+	@Param({"32"})
+	public int calls;
+
+	@Param({"4", "32"})
+	public int distinct;
+
+	private HttpServer mServer;
+	private String mUrl;
+	private JsonRpcClient mClient;
+	private final AtomicInteger mHttpRequests = new AtomicInteger();
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		mServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		mServer.createContext("/", new HttpHandler() {
+			@Override
+			public void handle(HttpExchange exchange) throws IOException {
+				mHttpRequests.incrementAndGet();
+				String body = read(exchange.getRequestBody());
+				Object request = new JSONTokener(body).nextValue();
+				String response;
+				if (request instanceof JSONArray) {
+					JSONArray requests = (JSONArray) request;
+					JSONArray responses = new JSONArray();
+					for (int i = 0; i < requests.length(); i++) {
+						responses.put(answer(requests.getJSONObject(i)));
+					}
+					response = responses.toString();
+				} else {
+					response = answer((JSONObject) request).toString();
+				}
+				try {
+					Thread.sleep(2);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+				exchange.getResponseHeaders().add("Content-Type", "application/json");
+				exchange.sendResponseHeaders(200, bytes.length);
+				OutputStream out = exchange.getResponseBody();
+				out.write(bytes);
+				out.close();
+			}
+		});
+		mServer.setExecutor(Executors.newFixedThreadPool(8));
+		mServer.start();
+		mUrl = "http://127.0.0.1:" + mServer.getAddress().getPort() + "/";
+		mClient = new JsonRpcClient(new OkHttpClient(), 2, maxBatch, 0);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		mClient.shutdown();
+		mServer.stop(0);
+		System.out.println("\nhttp requests: " + mHttpRequests.get());
+	}
+
+	@Benchmark
+	public int sendConcurrent() throws Exception {
+		final CountDownLatch done = new CountDownLatch(calls);
+		final AtomicReference<Exception> failure = new AtomicReference<>();
+		for (int i = 0; i < calls; i++) {
+			final int callerId = i % 4;
+			JSONObject request = new JSONObject();
+			request.put("jsonrpc", "2.0");
+			request.put("id", callerId);
+			request.put("method", "eth_getBalance");
+			request.put("params", new JSONArray().put(String.format("0x%040x", i % distinct)).put("latest"));
+			mClient.send(mUrl, request, new JsonRpcClient.Callback() {
+				@Override
+				public void onResponse(JSONObject response) {
+					if (response.optInt("id", -1) != callerId || !response.has("result")) {
+						failure.compareAndSet(null, new IllegalStateException("bad response " + response));
+					}
+					done.countDown();
+				}
+
+				@Override
+				public void onFailure(Exception e) {
+					failure.compareAndSet(null, e);
+					done.countDown();
+				}
+			});
+		}
+		if (!done.await(10, TimeUnit.SECONDS)) {
+			throw new IllegalStateException("timed out");
+		}
+		if (failure.get() != null) {
+			throw failure.get();
+		}
+		return calls;
+	}
+
+	private static JSONObject answer(JSONObject request) {
+		JSONObject response = new JSONObject();
+		response.put("jsonrpc", "2.0");
+		response.put("id", request.get("id"));
+		response.put("result", "0x10d4f");
+		return response;
+	}
+
+	private static String read(InputStream in) {
+		Scanner scanner = new Scanner(in, "UTF-8").useDelimiter("\\A");
+		return scanner.hasNext() ? scanner.next() : "";
+	}
+}
@@ -0,0 +1,61 @@
+package io.paliwallet.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import io.paliwallet.utils.CryptUtil;
+import io.paliwallet.utils.KeyDerivationCache;
+
+/** Saving the vault: deriving its key per save against encrypting under the unlocked handle. */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeyDerivationBenchmark {
+	private static final String PASSWORD = "correct horse battery staple";
+	private static final String SALT = "N2VmYjBmZDk0YjQxYjU4Mw==";
+
+	private static final byte[] VAULT = new byte[4096];
+	private static final byte[] IV = new byte[16];
+
+	private String mHandle;
+
+	@Setup
+	public void setUp() throws Exception {
+		mHandle = KeyDerivationCache.derive(PASSWORD, SALT, 5000, 256);
+	}
+
+	@TearDown
+	public void tearDown() {
+		KeyDerivationCache.wipe();
+	}
+
+	@Benchmark
+	public byte[] deriveAndEncrypt() throws Exception {
+		// what Encryptor.encrypt did before the unlock session
+		String handle = KeyDerivationCache.derive(PASSWORD, SALT, 5000, 256);
+		try {
+			return CryptUtil.encryptWithIv(VAULT, KeyDerivationCache.getKey(handle), IV);
+		} finally {
+			KeyDerivationCache.release(handle);
+		}
+	}
+
+	@Benchmark
+	public byte[] encryptWithHandle() throws Exception {
+		return CryptUtil.encryptWithIv(VAULT, KeyDerivationCache.getKey(mHandle), IV);
+	}
+}
@@ -0,0 +1,42 @@
+package io.paliwallet.benchmarks;
+
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * CryptUtil's CBC path as it was before ciphers were cached per thread: a provider lookup and a
+ * new key spec per call, plus the IV / payload copies. Kept as the "before" baseline.
+ */
+final class LegacyCryptUtil {
+
+	static byte[] encrypt(byte[] content, String key) throws Exception {
+		Cipher cipherEnc = Cipher.getInstance("AES/CBC/PKCS5Padding");
+		SecretKeySpec keySpec = new SecretKeySpec(key.getBytes(), "AES");
+		cipherEnc.init(Cipher.ENCRYPT_MODE, keySpec);
+		byte[] data = cipherEnc.doFinal(content);
+		byte[] iv = cipherEnc.getIV();
+		byte[] ret = new byte[iv.length + data.length];
+		System.arraycopy(iv, 0, ret, 0, iv.length);
+		System.arraycopy(data, 0, ret, iv.length, data.length);
+		return ret;
+	}
+
+	static byte[] decrypt(byte[] content, String key) throws Exception {
+		Cipher cipherEnc = Cipher.getInstance("AES/CBC/PKCS5Padding");
+		SecretKeySpec keySpec = new SecretKeySpec(key.getBytes(), "AES");
+		if (content.length < 16) {
+			throw new IllegalBlockSizeException("crypted data size error");
+		}
+		byte[] ivParam = new byte[16];
+		System.arraycopy(content, 0, ivParam, 0, ivParam.length);
+		cipherEnc.init(Cipher.DECRYPT_MODE, keySpec, new IvParameterSpec(ivParam));
+		byte[] data = new byte[content.length - ivParam.length];
+		System.arraycopy(content, ivParam.length, data, 0, content.length - ivParam.length);
+		return cipherEnc.doFinal(data);
+	}
+
+	private LegacyCryptUtil() {
+	}
+}
@@ -0,0 +1,58 @@
+package io.paliwallet.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+import io.paliwallet.utils.Reflect;
+
+/**
+ * The static-field read DeviceInfoUtils.isAV does through Reflect
+ * ({@code Reflect.on("android.app.ActivityThread").get("sPackageManager")}), against a raw,
+ * pre-resolved Field.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReflectBenchmark {
+
+	static class ActivityThread {
+		private static Object sPackageManager = new Object();
+	}
+
+	private Field mField;
+
+	@Setup
+	public void setUp() throws Exception {
+		mField = ActivityThread.class.getDeclaredField("sPackageManager");
+		mField.setAccessible(true);
+	}
+
+	@Benchmark
+	public Object reflectByName() {
+		return Reflect.on(ActivityThread.class.getName()).get("sPackageManager");
+	}
+
+	@Benchmark
+	public Object reflectByClass() {
+		return Reflect.on(ActivityThread.class).get("sPackageManager");
+	}
+
+	@Benchmark
+	public Object cachedField() throws Exception {
+		return mField.get(null);
+	}
+}
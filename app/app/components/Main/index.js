@@ -77,7 +77,13 @@ import {
 	STORAGE_NEW_VERSION_CODE,
 	STORAGE_UPDATE_VERSION_SHOW_MODAL
 } from '../../constants/storage';
-import { launchAppInGooglePlay, supportGooglePlay, jumpIosApp } from '../../util/NativeUtils';
+import {
+	launchAppInGooglePlay,
+	supportGooglePlay,
+	jumpIosApp,
+	addPowerStateListener,
+	addConnectivityListener
+} from '../../util/NativeUtils';
 import PushNotification from 'react-native-push-notification';
 import SharedDeeplinkManager from '../../core/DeeplinkManager';
 import PushNotificationIOS from '@react-native-community/push-notification-ios';
@@ -89,6 +95,9 @@ import { logDebug } from 'paliwallet-core/dist/util';
 import SecureKeychain from '../../core/SecureKeychain';
 import { isMainnetChain } from '../../util/ControllerUtils';
 
+const LOW_POWER_POLL_FACTOR = 4;
+const SLOW_LINK_POLL_FACTOR = 3;
+
 const styles = StyleSheet.create({
 	flex: {
 		flex: 1
@@ -928,6 +937,40 @@ const Main = props => {
 		};
 	}, [handleSessionRequest, handleAddChain, handleAddChainApproved, handleUpdateSessions]);
 
+	useEffect(() => {
+		// Poll balances less often on low power or a slow link; metered alone (any cellular
+		// link) is not slow. Only the largest factor applies: low power on a slow link backs
+		// off 4x, not 12x.
+		const { TokenBalancesController } = Engine.context;
+		let powerFactor = 1;
+		let linkFactor = 1;
+		let factor = 1;
+		const applyFactor = () => {
+			const next = Math.max(powerFactor, linkFactor, 1);
+			if (next === factor) {
+				return;
+			}
+			factor = next;
+			// the worker scales the intervals EngineImpl configured
+			TokenBalancesController.setPollBackoff(factor);
+		};
+		const powerSubscription = addPowerStateListener(state => {
+			powerFactor = state.isLowPower ? LOW_POWER_POLL_FACTOR : 1;
+			applyFactor();
+		});
+		const linkSubscription = addConnectivityListener(state => {
+			linkFactor = state.linkClass === 'slow' ? SLOW_LINK_POLL_FACTOR : 1;
+			applyFactor();
+		});
+		return () => {
+			powerSubscription && powerSubscription.remove();
+			linkSubscription && linkSubscription.remove();
+			powerFactor = 1;
+			linkFactor = 1;
+			applyFactor();
+		};
+	}, []);
+
 	useEffect(() => {
 		AppState.addEventListener('change', handleAppStateChange);
 
@@ -10,6 +10,7 @@ import { BACKUP_VAULT, BIOMETRY_CHOICE, BIOMETRY_CHOICE_DISABLED, EXISTING_USER
 import { util } from 'paliwallet-core';
 import LottieSplashScreen from 'react-native-lottie-splash-screen';
 import Device from '../../../util/Device';
+import { markStartup } from '../../../util/NativeUtils';
 
 const styles = StyleSheet.create({
 	main: {
@@ -35,6 +36,7 @@ class Entry extends PureComponent {
 		setTimeout(() => {
 			this.props.navigation.navigate(view);
 			LottieSplashScreen.hide();
+			markStartup('interactive');
 		}, timeout);
 	};
 
@@ -8,6 +8,7 @@ import { store, persistor } from '../../../store/';
 import App from '../../App';
 import SecureKeychain from '../../../core/SecureKeychain';
 import EntryScriptWeb3 from '../../../core/EntryScriptWeb3';
+import { traceEnd, traceStart } from '../../../util/NativeUtils';
 
 export default class Root extends PureComponent {
 	static propTypes = {
@@ -22,6 +23,7 @@ export default class Root extends PureComponent {
 
 	constructor(props) {
 		super(props);
+		this.traceStart = traceStart();
 		SecureKeychain.init(props.code);
 		EntryScriptWeb3.init();
 		EntryScriptWeb3.initVConsole();
@@ -30,6 +32,10 @@ export default class Root extends PureComponent {
 		global.native_start_time = props.native_start_time ? Number(props.native_start_time) : 0;
 	}
 
+	componentDidMount() {
+		traceEnd('firstRender', this.traceStart);
+	}
+
 	render = () => (
 		<Provider store={store}>
 			<PersistGate persistor={persistor}>
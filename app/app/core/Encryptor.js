@@ -1,5 +1,7 @@
 import { NativeModules } from 'react-native';
 const Aes = NativeModules.Aes;
+// Android only: keeps the derived key natively and encrypts with an opaque key handle.
+const KeyVault = NativeModules.PaliKeyVault;
 
 /**
  * Class that exposes two public methods: Encrypt and Decrypt
@@ -28,6 +30,39 @@ export default class Encryptor {
 
 	_decryptWithKey = (encryptedData, key, lib) => Aes.decrypt(encryptedData.cipher, key, encryptedData.iv);
 
+	// { handle, salt } of the unlocked vault key; the password itself is never kept
+	session = null;
+
+	/**
+	 * Derives a native key for (password, salt) and returns its handle. Only the handle
+	 * comes back to JS; KeyVault keeps the key until it is released or wiped.
+	 */
+	_deriveHandle = (password, salt) => KeyVault.derive(password, salt, 5000, 256);
+
+	_startSession = (handle, salt) => {
+		const previous = this.session;
+		this.session = { handle, salt };
+		previous && previous.handle !== handle && KeyVault.release(previous.handle);
+	};
+
+	/**
+	 * Forgets the session key, so the next encrypt derives again under a new salt.
+	 * Called when the password changes or a new vault is created.
+	 */
+	endSession = () => {
+		const session = this.session;
+		this.session = null;
+		session && KeyVault && KeyVault.release(session.handle);
+	};
+
+	/**
+	 * Zeroes the native derived keys. Called when the keyring locks.
+	 */
+	clearSession = () => {
+		this.session = null;
+		KeyVault && KeyVault.wipe();
+	};
+
 	/**
 	 * Encrypts a JS object using a password (and AES encryption with native libraries)
 	 *
@@ -36,6 +71,27 @@ export default class Encryptor {
 	 * @returns - Promise resolving to stringified data
 	 */
 	encrypt = async (password, object) => {
+		if (KeyVault) {
+			const text = JSON.stringify(object);
+			const session = this.session;
+			if (session) {
+				// the unlocked key under its stored salt; only the IV is new
+				try {
+					const result = await KeyVault.encrypt(text, session.handle);
+					return JSON.stringify({ cipher: result.cipher, iv: result.iv, salt: session.salt, lib: 'original' });
+				} catch (e) {
+					if (!/key handle/.test(e && e.message)) {
+						throw e;
+					}
+					// wiped by a lock in another JS context; fall through and derive again
+				}
+			}
+			const salt = session ? session.salt : this._generateSalt(16);
+			const handle = await this._deriveHandle(password, salt);
+			this._startSession(handle, salt);
+			const result = await KeyVault.encrypt(text, handle);
+			return JSON.stringify({ cipher: result.cipher, iv: result.iv, salt, lib: 'original' });
+		}
 		const salt = this._generateSalt(16);
 		const key = await this._keyFromPassword(password, salt, 'original');
 		const result = await this._encryptWithKey(JSON.stringify(object), key);
@@ -54,6 +110,19 @@ export default class Encryptor {
 	 */
 	decrypt = async (password, encryptedString) => {
 		const encryptedData = JSON.parse(encryptedString);
+		if (KeyVault) {
+			// always derives from the given password: unlock and verifyPassword must check it
+			const handle = await this._deriveHandle(password, encryptedData.salt);
+			let data;
+			try {
+				data = await KeyVault.decrypt(encryptedData.cipher, encryptedData.iv, handle);
+			} catch (e) {
+				KeyVault.release(handle);
+				throw e;
+			}
+			this._startSession(handle, encryptedData.salt);
+			return JSON.parse(data);
+		}
 		const key = await this._keyFromPassword(password, encryptedData.salt, encryptedData.lib);
 		const data = await this._decryptWithKey(encryptedData, key, encryptedData.lib);
 		return JSON.parse(data);
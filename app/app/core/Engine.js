@@ -32,12 +32,14 @@ import {
 
 import { store } from '../store';
 import NativeThreads from '../threads/NativeThreads';
+import * as StateStore from '../threads/StateStore';
 import { EventEmitter } from 'events';
 import { endNetworkChange } from '../actions/settings';
 import NotificationManager from './NotificationManager';
 import { getInternalFunctions } from '../util/threadUtils';
 import { reportError } from '../util/statistics';
 import Device from '../util/Device';
+import { markStartup, traceSpan } from '../util/NativeUtils';
 
 class AgentProvider extends EventEmitter {
 	name;
@@ -101,6 +103,34 @@ class Agent {
 
 class Engine {
 	datamodel;
+	stateMirror = new StateStore.StateMirror();
+
+	onControllerState(key, newState) {
+		if (key === 'RpcNetworkController' && newState.networks) {
+			const types = Object.keys(newState.networks);
+			if (types?.length) {
+				types.forEach(type => {
+					if (!this.datamodel.networks[ChainType.RPCBase].providers[type]) {
+						this.datamodel.networks[ChainType.RPCBase].providers[type] = new AgentProvider(
+							'RpcNetworkController',
+							type
+						);
+					}
+				});
+				const beTypes = Object.keys(this.datamodel.networks[ChainType.RPCBase].providers);
+				if (beTypes?.length) {
+					beTypes.forEach(type => {
+						if (!types.includes(type)) {
+							delete this.datamodel.networks[ChainType.RPCBase].providers[type];
+						}
+					});
+				}
+			} else {
+				this.datamodel.networks[ChainType.RPCBase].providers = [];
+			}
+		}
+		this.datamodel.context[key]?.notify(newState);
+	}
 
 	getAgentController(controllers: []) {
 		const context = {};
@@ -261,36 +291,30 @@ class Engine {
 			};
 			NativeThreads.get().addListener('state', result => {
 				let newState;
-				if (result.overwrite) {
+				if (result.version !== undefined) {
+					// full state from the native state store
+					const state = this.stateMirror.reset(result.key, result.state, result.version);
+					newState = util.rehydrate(result.key, state);
+				} else if (result.overwrite) {
 					newState = util.rehydrate(result.key, result.state);
 				} else {
 					const subState = util.rehydrate(result.key, result.state);
 					newState = { ...this.datamodel.context[result.key].state, ...subState };
 				}
-				if (result.key === 'RpcNetworkController' && newState.networks) {
-					const types = Object.keys(newState.networks);
-					if (types?.length) {
-						types.forEach(type => {
-							if (!this.datamodel.networks[ChainType.RPCBase].providers[type]) {
-								this.datamodel.networks[ChainType.RPCBase].providers[type] = new AgentProvider(
-									'RpcNetworkController',
-									type
-								);
-							}
-						});
-						const beTypes = Object.keys(this.datamodel.networks[ChainType.RPCBase].providers);
-						if (beTypes?.length) {
-							beTypes.forEach(type => {
-								if (!types.includes(type)) {
-									delete this.datamodel.networks[ChainType.RPCBase].providers[type];
-								}
-							});
-						}
-					} else {
-						this.datamodel.networks[ChainType.RPCBase].providers = [];
-					}
+				this.onControllerState(result.key, newState);
+			});
+			NativeThreads.get().addListener('state_patch', result => {
+				const update = this.stateMirror.apply(result.key, result.version, result.ops);
+				if (!update) {
+					StateStore.resync(result.key);
+					return;
 				}
-				this.datamodel.context[result.key]?.notify(newState);
+				const newState = {
+					...this.datamodel.context[result.key].state,
+					...util.rehydrate(result.key, update.changed)
+				};
+				update.removed.forEach(name => delete newState[name]);
+				this.onControllerState(result.key, newState);
 			});
 			NativeThreads.get().addListener('emit', result => {
 				try {
@@ -325,7 +349,9 @@ class Engine {
 					util.logWarn('PPYang NativeThreads provider_emit fail, result:', result, ' , error:', e);
 				}
 			});
-			NativeThreads.get().callEngineAsync('init', initialState);
+			traceSpan('engineInit', () => NativeThreads.get().callEngineAsync('init', initialState)).then(() =>
+				markStartup('engineReady')
+			);
 			Engine.instance = this;
 		}
 		return Engine.instance;
@@ -42,6 +42,7 @@ import { strings } from '../../locales/i18n';
 
 import { INFURA_PROJECTID, OPENSEA_APIKEY, ETHERSCAN_APIKEYS, BSCSCAN_APIKEYS, POLYGONSCAN_APIKEYS } from '@env';
 import Device from '../util/Device';
+import { createNativeRpcSubprovider } from './NativeRpcSubprovider';
 
 const encryptor = new Encryptor();
 
@@ -156,6 +157,7 @@ class EngineImpl {
 					},
 					['vault']
 				);
+				keyring.onLock(() => encryptor.clearSession());
 			} catch (e) {
 				util.logDebug('leon.w@init engine error: ', e);
 			}
@@ -543,6 +545,7 @@ class EngineImpl {
 
 	getProviderConfig(chainId: string) {
 		return {
+			createDataSubprovider: createNativeRpcSubprovider,
 			static: {
 				eth_sendTransaction: async (payload, next, end) => {
 					try {
@@ -0,0 +1,43 @@
+import { NativeModules } from 'react-native';
+// Android only: pooled, batching JSON-RPC transport (JsonRpcTransport.java).
+const PaliRpc = NativeModules.PaliRpc;
+
+/**
+ * web3-provider-engine data subprovider that sends requests through the native transport
+ * instead of fetch. Concurrent calls to the same rpcUrl are batched natively and the response
+ * arrives already parsed.
+ */
+class NativeRpcSubprovider {
+	constructor(rpcUrl) {
+		this.rpcUrl = rpcUrl;
+	}
+
+	setEngine(engine) {
+		this.engine = engine;
+	}
+
+	handleRequest(payload, next, end) {
+		const { id, jsonrpc, method, params } = payload;
+		PaliRpc.send(this.rpcUrl, JSON.stringify({ id, jsonrpc, method, params })).then(
+			response => {
+				if (response.error) {
+					const error = new Error(response.error.message);
+					error.code = response.error.code;
+					error.data = response.error.data;
+					end(error);
+					return;
+				}
+				end(null, response.result);
+			},
+			error => end(error)
+		);
+	}
+}
+
+/** A native data subprovider for rpcUrl, or undefined where the native transport is missing. */
+export function createNativeRpcSubprovider(rpcUrl) {
+	if (!PaliRpc || !rpcUrl || !/^https?:/i.test(rpcUrl)) {
+		return undefined;
+	}
+	return new NativeRpcSubprovider(rpcUrl);
+}
@@ -0,0 +1,79 @@
+import { DeviceEventEmitter, NativeModules } from 'react-native';
+// Android only: map channel between the app and the worker (MessageChannelModule.java).
+const PaliChannel = NativeModules.PaliChannel;
+
+export const isAvailable = !!PaliChannel;
+
+/**
+ * What JSON.stringify would keep of value, as plain data the bridge can carry: toJSON is
+ * honoured (BN, Date), undefined and functions are dropped from objects and become null in
+ * arrays, and non-finite numbers become null.
+ */
+export function toWire(value, key = '') {
+	if (value && typeof value.toJSON === 'function') {
+		value = value.toJSON(key);
+	}
+	if (value === null) {
+		return null;
+	}
+	switch (typeof value) {
+		case 'string':
+		case 'boolean':
+			return value;
+		case 'number':
+			return isFinite(value) ? value : null;
+		case 'object':
+			break;
+		default:
+			return undefined;
+	}
+	if (Array.isArray(value)) {
+		const array = new Array(value.length);
+		for (let i = 0; i < value.length; i++) {
+			const item = toWire(value[i], String(i));
+			array[i] = item === undefined ? null : item;
+		}
+		return array;
+	}
+	const object = {};
+	for (const name of Object.keys(value)) {
+		const item = toWire(value[name], name);
+		if (item !== undefined) {
+			object[name] = item;
+		}
+	}
+	return object;
+}
+
+/** Sends a message object to the other context, without stringifying it. */
+export function post(message) {
+	PaliChannel.post(toWire(message));
+}
+
+/**
+ * Calls onMessage for every message from the other context, in order; returns the subscription.
+ * Messages to the app arrive by priority: replies and lock events, then network and
+ * notification events, then controller states.
+ */
+export function listen(onMessage) {
+	const subscription = DeviceEventEmitter.addListener('PaliChannel.messages', messages => {
+		try {
+			for (let i = 0; i < messages.length; i++) {
+				onMessage(messages[i]);
+			}
+		} finally {
+			// the next batch is held natively until this one is handled
+			PaliChannel.ack();
+		}
+	});
+	PaliChannel.attach();
+	return subscription;
+}
+
+/**
+ * App only: the message statuses it has listeners for; the others are dropped before they are
+ * sent. Replies and worker callbacks are always delivered.
+ */
+export function subscribe(topics) {
+	PaliChannel.subscribe(topics);
+}
@@ -4,31 +4,62 @@ import AsyncStorage from '@react-native-async-storage/async-storage';
 import * as ApiClient from '../util/ApiClient';
 import { getExportFunctions } from '../util/threadUtils';
 import { util as TsUtils } from 'paliwallet-core';
+import * as Channel from './MessageChannel';
+import { awaitFirstFrame, markStartup } from '../util/NativeUtils';
+
+// start the worker, and so the engine, only once the UI has drawn its first frame (Android)
+const DEFER_WORKER_UNTIL_FIRST_FRAME = true;
+// start anyway if no first frame is reported by then
+const FIRST_FRAME_TIMEOUT_MS = 3000;
 
 class NativeThreads {
 	listeners = {};
+	// statuses with a listener, the only ones the worker's messages are delivered for
+	topics = new Set();
 	thread;
+	// messages posted before the worker starts, when there is no native channel to hold them
+	pending = [];
 	registerCls = {};
 	constructor() {
+		// listen for messages
+		if (Channel.isAvailable) {
+			Channel.listen(end => this.handleMessage(end));
+		}
+		this.sendRegisterClass();
+		const firstFrame = DEFER_WORKER_UNTIL_FIRST_FRAME && awaitFirstFrame(FIRST_FRAME_TIMEOUT_MS);
+		if (firstFrame) {
+			firstFrame.then(() => this.startWorker());
+		} else {
+			this.startWorker();
+		}
+	}
+	startWorker() {
+		if (this.thread || this.terminated) {
+			return;
+		}
+		markStartup('workerStart');
 		// start a new react native JS process
 		this.thread = new Thread('./NativeWorker.js');
-		// listen for messages
 		this.thread.onmessage = message => {
 			if (!message) {
 				return;
 			}
-			const end = JSON.parse(message);
-			// console.log('PPYang NativeThreads end：', end);
-			if (end.status === 'callback') {
-				this.handCallback(end);
-			} else if (this.listeners[end._id]) {
-				this.listeners[end._id](end);
-				delete this.listeners[end._id];
-			} else if (this.listeners[end.status]) {
-				this.listeners[end.status](end.value);
-			}
+			this.handleMessage(JSON.parse(message));
 		};
-		this.sendRegisterClass();
+		const pending = this.pending;
+		this.pending = null;
+		pending.forEach(message => this.postMessage(message));
+	}
+	handleMessage(end) {
+		// console.log('PPYang NativeThreads end：', end);
+		if (end.status === 'callback') {
+			this.handCallback(end);
+		} else if (this.listeners[end._id]) {
+			this.listeners[end._id](end);
+			delete this.listeners[end._id];
+		} else if (this.listeners[end.status]) {
+			this.listeners[end.status](end.value);
+		}
 	}
 	registerClass() {
 		return [
@@ -60,24 +91,18 @@ class NativeThreads {
 	handlePromise(initData: any, p: Promise<any>) {
 		p.then(
 			value => {
-				// send a message, strings only
-				this.thread.postMessage(
-					JSON.stringify({
-						status: 'ok',
-						_id: initData._id,
-						value: value || ''
-					})
-				);
+				this.postMessage({
+					status: 'ok',
+					_id: initData._id,
+					value: value || ''
+				});
 			},
 			err => {
-				// send a message, strings only
-				this.thread.postMessage(
-					JSON.stringify({
-						status: 'error',
-						_id: initData._id,
-						value: err.message
-					})
-				);
+				this.postMessage({
+					status: 'error',
+					_id: initData._id,
+					value: err.message
+				});
 			}
 		);
 	}
@@ -91,6 +116,15 @@ class NativeThreads {
 
 	addListener(name, listener) {
 		this.listeners[name] = listener;
+		this.topics.add(name);
+		if (Channel.isAvailable && !this.subscribeScheduled) {
+			// listeners are added in a row, send them as one set
+			this.subscribeScheduled = true;
+			Promise.resolve().then(() => {
+				this.subscribeScheduled = false;
+				Channel.subscribe([...this.topics]);
+			});
+		}
 	}
 
 	async callTransactionResult(id) {
@@ -136,7 +170,14 @@ class NativeThreads {
 	}
 
 	postMessage(message) {
-		this.thread.postMessage(JSON.stringify(message));
+		if (Channel.isAvailable) {
+			// held natively until the worker attaches
+			Channel.post(message);
+		} else if (this.pending) {
+			this.pending.push(message);
+		} else {
+			this.thread.postMessage(JSON.stringify(message));
+		}
 	}
 
 	toMessage(funcName: any, args = []) {
@@ -147,6 +188,7 @@ class NativeThreads {
 	}
 
 	terminate() {
+		this.terminated = true;
 		this.thread?.terminate();
 	}
 }
@@ -0,0 +1,101 @@
+import { NativeModules } from 'react-native';
+import * as Channel from './MessageChannel';
+// Android only: last published controller states, shipped to the app as JSON Patch (StateStoreModule.java).
+const PaliStateStore = Channel.isAvailable ? NativeModules.PaliStateStore : undefined;
+
+export const isAvailable = !!PaliStateStore;
+
+/** Worker side: hands a controller state (or, without overwrite, its changed keys) to the store. */
+export function publish(key, state, overwrite) {
+	PaliStateStore.publish(key, Channel.toWire(state), !!overwrite);
+}
+
+/** App side: asks for the full state of key, or of every controller without one. */
+export function resync(key) {
+	PaliStateStore.resync(key || null);
+}
+
+function clone(value) {
+	if (value === null || typeof value !== 'object') {
+		return value;
+	}
+	if (Array.isArray(value)) {
+		return value.map(clone);
+	}
+	const copy = {};
+	for (const name of Object.keys(value)) {
+		copy[name] = clone(value[name]);
+	}
+	return copy;
+}
+
+function unescape(token) {
+	return token.indexOf('~') < 0 ? token : token.replace(/~1/g, '/').replace(/~0/g, '~');
+}
+
+/**
+ * App side copy of the states as the store last sent them, before rehydration. rehydrate()
+ * mutates what it is given, so callers only ever get copies of the parts they need.
+ */
+export class StateMirror {
+	states = {};
+	versions = {};
+
+	/** Records a full state and returns a copy for rehydration. */
+	reset(key, state, version) {
+		this.states[key] = state;
+		this.versions[key] = version;
+		return clone(state);
+	}
+
+	/**
+	 * Applies a patch; returns copies of the top-level values it changed and the top-level keys
+	 * it removed, or null when the patch does not follow the version held here (resync then).
+	 */
+	apply(key, version, ops) {
+		const state = this.states[key];
+		if (!state || this.versions[key] !== version - 1) {
+			return null;
+		}
+		const touched = new Set();
+		try {
+			for (const op of ops) {
+				const tokens = op.path.split('/').slice(1).map(unescape);
+				touched.add(tokens[0]);
+				let parent = state;
+				for (let i = 0; i < tokens.length - 1; i++) {
+					parent = parent[tokens[i]];
+				}
+				const last = tokens[tokens.length - 1];
+				if (Array.isArray(parent)) {
+					const index = Number(last);
+					if (op.op === 'add') {
+						parent.splice(index, 0, op.value);
+					} else if (op.op === 'remove') {
+						parent.splice(index, 1);
+					} else {
+						parent[index] = op.value;
+					}
+				} else if (op.op === 'remove') {
+					delete parent[last];
+				} else {
+					parent[last] = op.value;
+				}
+			}
+		} catch (e) {
+			delete this.states[key];
+			return null;
+		}
+		this.versions[key] = version;
+		const changed = {};
+		const removed = [];
+		touched.forEach(name => {
+			if (name in state) {
+				changed[name] = clone(state[name]);
+			} else {
+				removed.push(name);
+			}
+		});
+		return { changed, removed };
+	}
+}
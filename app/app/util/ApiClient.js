@@ -1,6 +1,6 @@
 import { API_KEY } from '@env';
 import { ChainType, util } from 'paliwallet-core';
-import { NativeModules, Platform } from 'react-native';
+import { Platform } from 'react-native';
 import { getBuildNumber, getVersion } from 'react-native-device-info';
 import { addFavouriteDapps, updateBuyCryptoAffiliate, updateDappPage, updateDefaultTypes } from '../actions/browser';
 import { SetAppstoreBaseVersion, SetUpdateConfig, updateContractList, updateFamousAccounts } from '../actions/settings';
@@ -10,7 +10,7 @@ import { store } from '../store';
 import NativeThreads from '../threads/NativeThreads';
 import { getLanguageDapp } from '../util/browser';
 import { decryptString } from './CryptUtils';
-import Device, { getIosDeviceInfo } from './Device';
+import Device, { getAndroidDeviceFields, getIosDeviceInfo } from './Device';
 import { isTestFlight } from './NativeUtils';
 import { getDapp } from './browser';
 
@@ -19,6 +19,21 @@ const TEST_INVITE_URL = 'http://pocket.libsss.com';
 const RELEASE_INVITE_URL = 'https://community.gopocket.xyz';
 
 const log = util.logInfo;
+// the device info logged at startup and handed to dapps; battery, network, disk and the
+// installed apps are left out, they go stale and cost the most to read
+const ANDROID_DEVICE_FIELDS = [
+	'manufacturer',
+	'brand',
+	'model',
+	'device',
+	'product',
+	'sdk_int',
+	'lang',
+	'resolution',
+	'density',
+	'isEmulator',
+	'abis'
+];
 let fetch_config_success = false;
 
 const fetchConfig = async () => {
@@ -95,8 +110,8 @@ export async function initApiClient() {
 	global.appVersionCode = await getBuildNumber();
 	global.deviceInfo = await new Promise(resolve => {
 		if (Platform.OS === 'android') {
-			NativeModules.RNToolsManager.getDeviceInfo().then(event => {
-				resolve(event);
+			getAndroidDeviceFields(ANDROID_DEVICE_FIELDS).then(info => {
+				resolve(JSON.stringify(info));
 			});
 			return;
 		}
@@ -1,6 +1,6 @@
 // eslint-disable-next-line import/no-extraneous-dependencies
 import { encode } from '@ethersproject/base64';
-import { NativeModules } from 'react-native';
+import { DeviceEventEmitter, NativeModules } from 'react-native';
 
 const secretKey = 'fajfladsjfkladsfjadlksfjsakdlfja';
 
@@ -21,3 +21,29 @@ export async function decryptString(content: string) {
 	const encrytStr = await NativeModules.RNToolsManager.decryptBase64(content, secretKey);
 	return encrytStr;
 }
+
+let fileTaskId = 0;
+
+async function runFileTask(method, srcPath, dstPath, onProgress) {
+	const taskId = `crypt_file_${++fileTaskId}`;
+	const subscription =
+		onProgress &&
+		DeviceEventEmitter.addListener('RNToolsManager.cryptProgress', event => {
+			if (event.taskId === taskId) {
+				onProgress(event.processed, event.total);
+			}
+		});
+	try {
+		return await NativeModules.RNToolsManager[method](srcPath, dstPath, secretKey, taskId);
+	} finally {
+		subscription && subscription.remove();
+	}
+}
+
+export function encryptFile(srcPath: string, dstPath: string, onProgress) {
+	return runFileTask('encryptFile', srcPath, dstPath, onProgress);
+}
+
+export function decryptFile(srcPath: string, dstPath: string, onProgress) {
+	return runFileTask('decryptFile', srcPath, dstPath, onProgress);
+}
@@ -1,6 +1,6 @@
 'use strict';
 
-import { Dimensions, Platform } from 'react-native';
+import { Dimensions, NativeModules, Platform } from 'react-native';
 import { getModel, getUniqueId, isEmulator, isTablet } from 'react-native-device-info';
 
 export default class Device {
@@ -102,3 +102,11 @@ export async function getIosDeviceInfo() {
 	info.brand = (await isTablet()) ? 'iPad' : 'iPhone';
 	return Promise.resolve(JSON.stringify(info));
 }
+
+/**
+ * Android device info as an object holding only the requested fields (all of them when
+ * omitted), e.g. getAndroidDeviceFields(['net_type', 'lang', 'sdk_int']).
+ */
+export function getAndroidDeviceFields(fields) {
+	return NativeModules.RNToolsManager.getDeviceInfoMap(fields || null);
+}
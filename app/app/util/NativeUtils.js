@@ -1,4 +1,4 @@
-import { NativeModules } from 'react-native';
+import { DeviceEventEmitter, NativeModules, Platform } from 'react-native';
 
 export async function supportGooglePlay() {
 	const support = await NativeModules.RNToolsManager.supportGooglePlay();
@@ -26,3 +26,133 @@ export async function jumpIosApp() {
 export async function iosShake() {
 	await NativeModules.RNToolsManager.shake();
 }
+
+/**
+ * Battery level, charging state and power-save mode, pushed by the native monitor whenever
+ * one of them changes (at most once a second). Android only; returns null elsewhere.
+ */
+export function addPowerStateListener(listener) {
+	if (Platform.OS !== 'android') {
+		return null;
+	}
+	NativeModules.RNToolsManager.getPowerState().then(listener);
+	return DeviceEventEmitter.addListener('RNToolsManager.powerStateChanged', listener);
+}
+
+/**
+ * Storage pressure ('normal' | 'low' | 'critical', with free and total bytes), pushed when
+ * the level changes. Native caches are already trimmed by the time 'low' or 'critical' arrives.
+ * Android only; returns null elsewhere.
+ */
+export function addStoragePressureListener(listener) {
+	if (Platform.OS !== 'android') {
+		return null;
+	}
+	NativeModules.RNToolsManager.getStorageState().then(listener);
+	return DeviceEventEmitter.addListener('RNToolsManager.storagePressure', listener);
+}
+
+/**
+ * Default network transport, metered flag and link bandwidth estimate ('slow' | 'moderate' |
+ * 'fast' | 'unknown'), pushed when one of them changes. Android only; returns null elsewhere.
+ */
+export function addConnectivityListener(listener) {
+	if (Platform.OS !== 'android') {
+		return null;
+	}
+	NativeModules.RNToolsManager.getConnectivity().then(listener);
+	return DeviceEventEmitter.addListener('RNToolsManager.connectivityChanged', listener);
+}
+
+/**
+ * Shared HTTP cache counters: hits, revalidated (304), misses, bytesSaved, size and maxSize.
+ * Android only; resolves null elsewhere.
+ */
+export async function getHttpCacheStats() {
+	if (Platform.OS !== 'android') {
+		return null;
+	}
+	return NativeModules.RNToolsManager.getHttpCacheStats();
+}
+
+/**
+ * Resolves once the app has drawn its first frame, or after timeoutMs. Android only; returns
+ * null elsewhere.
+ */
+export function awaitFirstFrame(timeoutMs) {
+	if (Platform.OS !== 'android') {
+		return null;
+	}
+	return Promise.race([
+		NativeModules.RNToolsManager.awaitFirstFrame(),
+		new Promise(resolve => setTimeout(resolve, timeoutMs))
+	]);
+}
+
+/** Records a startup milestone; see getStartupTimings. Android only. */
+export function markStartup(name) {
+	if (Platform.OS === 'android') {
+		NativeModules.RNToolsManager.markStartup(name);
+	}
+}
+
+/**
+ * Startup milestones in ms since Application.onCreate: appCreate, workerBundlePrewarmed,
+ * firstFrame, workerStart, engineReady and interactive. Android only; resolves null elsewhere.
+ */
+export async function getStartupTimings() {
+	if (Platform.OS !== 'android') {
+		return null;
+	}
+	return NativeModules.RNToolsManager.getStartupTimings();
+}
+
+/**
+ * Start time for traceEnd, on the native performance clock; null where spans are not recorded
+ * (iOS, or a JS engine without that clock such as the remote debugger).
+ */
+export function traceStart() {
+	if (Platform.OS !== 'android' || !global.nativePerformanceNow) {
+		return null;
+	}
+	return global.nativePerformanceNow();
+}
+
+/** Records a span of the startup trace from start (see traceStart) to now. */
+export function traceEnd(name, start) {
+	if (start !== null && start !== undefined) {
+		NativeModules.RNToolsManager.addTraceSpan(name, start, global.nativePerformanceNow());
+	}
+}
+
+/** Runs fn and records how long its promise took as a span of the startup trace. */
+export async function traceSpan(name, fn) {
+	const start = traceStart();
+	try {
+		return await fn();
+	} finally {
+		traceEnd(name, start);
+	}
+}
+
+/**
+ * How many instances of each in-house native module were created, over the app's and the
+ * workers' contexts; modules are built on first use. Android only; resolves null elsewhere.
+ */
+export async function getCreatedModules() {
+	if (Platform.OS !== 'android') {
+		return null;
+	}
+	return NativeModules.RNToolsManager.getCreatedModules();
+}
+
+/**
+ * Writes the startup trace (Chrome trace JSON) recorded so far and resolves with its path.
+ * Android only; resolves null elsewhere.
+ */
+export async function exportStartupTrace() {
+	if (Platform.OS !== 'android') {
+		return null;
+	}
+	return NativeModules.RNToolsManager.exportStartupTrace();
+}
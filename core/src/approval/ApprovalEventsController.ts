@@ -13,6 +13,11 @@ import { ChainType } from "../Config";
 
 const APPROVAL_METHOD_ID = '0x095ea7b3';
 
+const isApprovalTx = (tx: TransactionInfo) =>
+  !!tx.transactionHash &&
+  tx.status === TransactionStatus.confirmed &&
+  !!tx.transaction?.data?.startsWith(APPROVAL_METHOD_ID);
+
 /**
  * @property allEvents - myAddress : event group
  */
@@ -128,10 +133,7 @@ export class ApprovalEventsController extends BaseController<BaseConfig, Approva
       if (!contractController || !type) {
         return;
       }
-      const txInfos = await Sqlite.getInstance().getTransactions(myAddress, type, chainId);
-      if (!txInfos) {
-        return;
-      }
+      const txInfos = await this.findApprovalTxs(myAddress, type, chainId);
       await this.handleOneAccountTxs(chainId, myAddress, txInfos, contractController);
     } catch (error) {
       logDebug('refreshMyEventGroups error --> ', error);
@@ -179,24 +181,28 @@ export class ApprovalEventsController extends BaseController<BaseConfig, Approva
       if (!contractController || !type || !selectedAddress) {
         return;
       }
-      const transactions = await Sqlite.getInstance().getTransactions(selectedAddress, type, chainId);
-      if (!transactions) {
-        return;
-      }
+      const transactions = await this.findApprovalTxs(selectedAddress, type, chainId);
       await this.handleOneAccountTxs(chainId, selectedAddress, transactions, contractController);
     } catch (error) {
       logDebug('filterApprovalEventForAddress error --> ', error);
     }
   }
 
+  // confirmed approve() calls of address on chainId, newest first, read a page at a time
+  async findApprovalTxs(address: string, type: ChainType, chainId: string) {
+    const approvalTxs: TransactionInfo[] = [];
+    await Sqlite.getInstance().forEachTransactionPage(address, type, chainId, ['tx'], (txs: TransactionInfo[]) => {
+      approvalTxs.push(...txs.filter(isApprovalTx));
+    });
+    return approvalTxs;
+  }
+
   async handleOneAccountTxs(chainId: string, myAddress: string, txInfos: TransactionInfo[], contractController: any) {
     const releaseLock = await this.mutex.acquire();
     try {
       const currentEventGroups = this.state.allEvents[myAddress] || {};
       const newEventGroups = { ...currentEventGroups };
-      const approvalTxs = txInfos?.filter((tx: TransactionInfo) => {
-        return tx.transactionHash && tx.status === TransactionStatus.confirmed && tx.transaction?.data?.startsWith(APPROVAL_METHOD_ID);
-      }) || [];
+      const approvalTxs = txInfos?.filter(isApprovalTx) || [];
       const tokenArray = [];
       const spenderArray = [];
       let hasNew = false;
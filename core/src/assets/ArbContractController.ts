@@ -236,18 +236,17 @@ export class ArbContractController extends ContractController<ArbConfig, ArbStat
       logDebug('leon.w@arb getBlockInfo failed');
       return;
     }
-    const txs: TransactionInfo[] = await Sqlite.getInstance().getAllTransactions(selectedAddress, ChainType.Arbitrum, this.l2_chainId, 'tx');
-    if (!txs) {
-      return;
-    }
     const addr1 = await this.getwithdrawERC20MethodId();
     const addr2 = await this.getwithdrawETHMethodId();
-    const arbMigrationTxs = txs.filter((tx) => {
-      return tx.transactionHash && tx.status === TransactionStatus.confirmed &&
-        ((tx.transaction.to?.toLowerCase() === addr1[0].toLowerCase() && tx.transaction.data?.startsWith(`0x${addr1[1]}`)) ||
-        (tx.transaction.to?.toLowerCase() === addr2[0].toLowerCase() && tx.transaction.data?.startsWith(`0x${addr2[1]}`)));
+    const arbMigrationTxs: TransactionInfo[] = [];
+    await Sqlite.getInstance().forEachTransactionPage(selectedAddress, ChainType.Arbitrum, this.l2_chainId, ['tx'], (txs: TransactionInfo[]) => {
+      arbMigrationTxs.push(...txs.filter((tx) => {
+        return tx.transactionHash && tx.status === TransactionStatus.confirmed &&
+          ((tx.transaction.to?.toLowerCase() === addr1[0].toLowerCase() && tx.transaction.data?.startsWith(`0x${addr1[1]}`)) ||
+          (tx.transaction.to?.toLowerCase() === addr2[0].toLowerCase() && tx.transaction.data?.startsWith(`0x${addr2[1]}`)));
+      }));
     });
-    if (!arbMigrationTxs || arbMigrationTxs.length === 0) {
+    if (arbMigrationTxs.length === 0) {
       return;
     }
     const start = Date.now();
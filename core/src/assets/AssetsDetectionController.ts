@@ -72,45 +72,44 @@ export class AssetsDetectionController extends BaseController<BaseConfig, BaseSt
       if (!contractController || !type) {
         return;
       }
-      const targetInfos = await Sqlite.getInstance().getTokenTransactions(selectedAddress, type, chainId);
-      if (!targetInfos) {
-        return;
-      }
       const targetTokens = assetsController.state.allTokens[selectedAddress]?.[chainId] || [];
       const targetIgnoreTokens = assetsController.state.allIgnoredTokens[selectedAddress]?.[chainId] || [];
       if (targetTokens.length >= 200) {
         return;
       }
-      for (const tokenTxInfo of targetInfos) {
-        let ERC20Addr = '';
+      await Sqlite.getInstance().forEachTransactionPage(selectedAddress, type, chainId, ['tokentx'], (targetInfos) => {
+        for (const tokenTxInfo of targetInfos) {
+          let ERC20Addr = '';
 
-        if (chainId !== tokenTxInfo.chainId) {
-          continue;
-        }
+          if (chainId !== tokenTxInfo.chainId) {
+            continue;
+          }
 
-        if (tokenTxInfo.transferInformation) {
-          ERC20Addr = tokenTxInfo.transferInformation.contractAddress;
-        }
+          if (tokenTxInfo.transferInformation) {
+            ERC20Addr = tokenTxInfo.transferInformation.contractAddress;
+          }
 
-        if (ERC20Addr === '' || ERC20Addr === undefined) {
-          continue;
-        }
-        if (needToAdd.find((address) => address === ERC20Addr)) {
-          continue;
-        }
-        const lowerERC20Addr = ERC20Addr.toLowerCase();
-        if (targetTokens.find((token) => lowerERC20Addr === token.address.toLowerCase())) {
-          continue;
-        }
-        if (targetIgnoreTokens.find((token) => lowerERC20Addr === token.address.toLowerCase())) {
-          continue;
-        }
+          if (ERC20Addr === '' || ERC20Addr === undefined) {
+            continue;
+          }
+          if (needToAdd.find((address) => address === ERC20Addr)) {
+            continue;
+          }
+          const lowerERC20Addr = ERC20Addr.toLowerCase();
+          if (targetTokens.find((token) => lowerERC20Addr === token.address.toLowerCase())) {
+            continue;
+          }
+          if (targetIgnoreTokens.find((token) => lowerERC20Addr === token.address.toLowerCase())) {
+            continue;
+          }
 
-        needToAdd.push(ERC20Addr);
-        if (targetTokens.length + needToAdd.length >= 400) {
-          break;
+          needToAdd.push(ERC20Addr);
+          if (targetTokens.length + needToAdd.length >= 400) {
+            return false;
+          }
         }
-      }
+        return true;
+      });
 
       const balances = await contractController.getBalancesInSingleCall(
         selectedAddress,
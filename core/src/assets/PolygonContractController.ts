@@ -313,20 +313,19 @@ export class PolygonContractController extends ContractController<PolygonConfig,
     if (!selectedAddress || preferencesController.isObserveAddress(selectedAddress)) {
       return;
     }
-    const txs: TransactionInfo[] = await Sqlite.getInstance().getAllTransactions(selectedAddress, ChainType.Polygon, this.l2_chainId, 'tx');
-    if (!txs) {
-      return;
-    }
     const block_info = await this.getBlockInfo();
     if (block_info.block_number === 0 || block_info.timestamp === 0) {
       logDebug('leon.w@polygon getBlockInfo failed');
       return;
     }
     const addr1 = await this.getwithdrawMethodId();
-    const polygonMigrationTxs = txs.filter((tx) => {
-      return tx.transactionHash && tx.status === TransactionStatus.confirmed && tx.blockNumber && block_info.block_number - Number(tx.blockNumber) < this.config.expired_block_number && tx.transaction.data?.startsWith(`0x${addr1[1]}`);
+    const polygonMigrationTxs: TransactionInfo[] = [];
+    await Sqlite.getInstance().forEachTransactionPage(selectedAddress, ChainType.Polygon, this.l2_chainId, ['tx'], (txs: TransactionInfo[]) => {
+      polygonMigrationTxs.push(...txs.filter((tx) => {
+        return tx.transactionHash && tx.status === TransactionStatus.confirmed && tx.blockNumber && block_info.block_number - Number(tx.blockNumber) < this.config.expired_block_number && tx.transaction.data?.startsWith(`0x${addr1[1]}`);
+      }));
     });
-    if (!polygonMigrationTxs || polygonMigrationTxs.length === 0) {
+    if (polygonMigrationTxs.length === 0) {
       return;
     }
     const start = Date.now();
@@ -43,6 +43,8 @@ export class TokenBalancesController extends BaseController<TokenBalancesConfig,
   private polling_counter = 0;
   private polling_counterRollux = 0;
 
+  private pollBackoff = 1;
+
   /**
    * Name of this controller used during composition
    */
@@ -77,6 +79,16 @@ export class TokenBalancesController extends BaseController<TokenBalancesConfig,
     this.update(new_state);
   }
 
+  /**
+   * Stretches both polling intervals by factor (1 restores them) from the next poll on, keeping
+   * the configured intervals as the base.
+   *
+   * @param factor - Multiplier of the configured intervals, at least 1
+   */
+  setPollBackoff(factor: number) {
+    this.pollBackoff = factor > 1 ? factor : 1;
+  }
+
   /**
    * Starts a new polling interval for both rollux and other networks.
    */
@@ -104,7 +116,7 @@ export class TokenBalancesController extends BaseController<TokenBalancesConfig,
     }
     this.handle = setTimeout(() => {
       this.poll(this.config.interval);
-    }, this.config.interval);
+    }, this.config.interval * this.pollBackoff);
   }
 
   /**
@@ -126,7 +138,7 @@ export class TokenBalancesController extends BaseController<TokenBalancesConfig,
     }
     this.handleRollux = setTimeout(() => {
       this.pollRollux(this.config.intervalRollux);
-    }, this.config.intervalRollux);
+    }, this.config.intervalRollux * this.pollBackoff);
   }
 
   /**
@@ -39,6 +39,8 @@ declare module 'bip39';
 
 declare module 'ethjs-ens';
 
+declare module 'react-native';
+
 declare module 'react-native-sqlite-storage';
 
 declare module 'url-parse'
@@ -529,6 +529,10 @@ class KeyringController extends EventEmitter {
       return Promise.reject(new Error('KeyringController - password is not a string'));
     }
 
+    if (password !== this.password && this.encryptor.endSession) {
+      // a new or changed password gets a new salt and key
+      this.encryptor.endSession();
+    }
     this.password = password;
 
     return Promise.all(
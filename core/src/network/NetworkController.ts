@@ -141,6 +141,7 @@ export class NetworkController extends BaseNetworkController<BaseNetworkConfig,
 
   private setupStandardProvider(rpcTarget: string, chainId: string, ticker?: string, nickname?: string) {
     const providerConfig = this.config.getProviderConfig(chainId);
+    const dataSubprovider = providerConfig.createDataSubprovider?.(rpcTarget);
     const config = {
       ...providerConfig,
       ...{
@@ -150,6 +151,7 @@ export class NetworkController extends BaseNetworkController<BaseNetworkConfig,
         rpcUrl: rpcTarget,
         ticker,
       },
+      ...(dataSubprovider ? { dataSubprovider } : {}),
     };
     this.updateProvider(createMetamaskProvider(config));
   }
@@ -57,6 +57,7 @@ export class RpcNetworkController extends BaseController<BaseNetworkConfig, RcpN
 
   private setupStandardProvider(rpcTarget: string, chainId: string, ticker?: string, nickname?: string) {
     const providerConfig = this.config.getProviderConfig(chainId);
+    const dataSubprovider = providerConfig.createDataSubprovider?.(rpcTarget);
     const config = {
       ...providerConfig,
       ...{
@@ -66,6 +67,7 @@ export class RpcNetworkController extends BaseController<BaseNetworkConfig, RcpN
         rpcUrl: rpcTarget,
         ticker,
       },
+      ...(dataSubprovider ? { dataSubprovider } : {}),
     };
     return createMetamaskProvider(config);
   }
@@ -1,4 +1,5 @@
 import SQLiteStorage from 'react-native-sqlite-storage';
+import { NativeModules } from 'react-native';
 import URL from 'url-parse';
 import { ChainType } from '../Config';
 import { util } from '..';
@@ -10,6 +11,12 @@ SQLiteStorage.enablePromise(false);
 const database_name = 'PaliWallet.db';
 const database_version = '1.0';
 const database_displayname = 'PaliWalletDatabase';
+// Android: paged reads of TRANSACTIONS (TransactionStoreModule.java), null elsewhere
+const TxStore = NativeModules.PaliTxStore;
+const TX_PAGE_SIZE = 200;
+
+// where a page of transactions ended; rows without a time sort after every timed row
+type TxPageKey = { time: number | null; id: number };
 
 export class Sqlite {
   private static instance: Sqlite;
@@ -106,6 +113,15 @@ export class Sqlite {
             this._errorLog('create table TRANSACTIONS', err);
           },
         );
+        // keyset pages of getTransactionPage: one address and chain, newest first
+        tx.executeSql(
+          'CREATE INDEX IF NOT EXISTS TRANSACTIONS_ADDRESS_CHAIN_TIME ON TRANSACTIONS(address, tx_chainId, time, id)',
+          [],
+          undefined,
+          (err: any) => {
+            this._errorLog('create index TRANSACTIONS_ADDRESS_CHAIN_TIME', err);
+          },
+        );
         // browser history
         tx.executeSql(
           'CREATE TABLE IF NOT EXISTS BROWSER_HISTORY(' +
@@ -1181,34 +1197,30 @@ export class Sqlite {
     );
   }
 
+  /**
+   * At most count transactions from index on, newest first. To go through a whole history, use
+   * forEachTransactionPage.
+   */
   async getTransactions(
     address: string,
     type: ChainType,
     chainId: string,
-    includingTxInternal = false,
-    index: number | undefined = undefined,
-    count: number | undefined = undefined,
+    includingTxInternal: boolean,
+    index: number,
+    count: number,
   ): Promise<TransactionInfo[]> {
     return new Promise((resolve) => {
+      const [limit, offset] = this.pageBounds(index, count);
       let sql;
       let values;
       if (includingTxInternal) {
-        if (index != undefined && count != undefined && index >= 0 && count > 0) {
-          sql =
-            'SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND (txType=? OR txType=?) AND tx_chainId=? ORDER BY time DESC LIMIT ? OFFSET ?';
-          values = [address, type, 'tx', 'internaltx', chainId, count, index];
-        } else {
-          sql =
-            'SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND (txType=? OR txType=?) AND tx_chainId=? ORDER BY time DESC';
-          values = [address, type, 'tx', 'internaltx', chainId];
-        }
-      } else if (index != undefined && count != undefined && index >= 0 && count > 0) {
         sql =
-          'SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND tx_chainId=? ORDER BY time DESC LIMIT ? OFFSET ?';
-        values = [address, type, 'tx', chainId, count, index];
+          'SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND (txType=? OR txType=?) AND tx_chainId=? ORDER BY time DESC LIMIT ? OFFSET ?';
+        values = [address, type, 'tx', 'internaltx', chainId, limit, offset];
       } else {
-        sql = 'SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND tx_chainId=? ORDER BY time DESC';
-        values = [address, type, 'tx', chainId];
+        sql =
+          'SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND tx_chainId=? ORDER BY time DESC LIMIT ? OFFSET ?';
+        values = [address, type, 'tx', chainId, limit, offset];
       }
       this.db.executeSql(
         sql,
@@ -1379,12 +1391,8 @@ export class Sqlite {
       if (to) {
         subSql = `${subSql} AND lower(tx_to)='${to.toLowerCase()}'`;
       }
-      let sql = `SELECT * FROM TRANSACTIONS WHERE address=? AND (txType=? OR txType=?) AND transactionHash!='' AND transactionHash IS NOT NULL ${subSql} AND tx_data LIKE ? ORDER BY time DESC`;
-      let values: any[] = [address, 'tx', 'internaltx', `${methodId}%`];
-      if (index !== undefined && count !== undefined && index >= 0 && count > 0) {
-        sql = `${sql} LIMIT ? OFFSET ?`;
-        values = [...values, count, index];
-      }
+      const sql = `SELECT * FROM TRANSACTIONS WHERE address=? AND (txType=? OR txType=?) AND transactionHash!='' AND transactionHash IS NOT NULL ${subSql} AND tx_data LIKE ? ORDER BY time DESC LIMIT ? OFFSET ?`;
+      const values: any[] = [address, 'tx', 'internaltx', `${methodId}%`, ...this.pageBounds(index, count)];
 
       this.db.executeSql(
         sql,
@@ -1432,12 +1440,8 @@ export class Sqlite {
       if (to) {
         subSql = `${subSql} AND lower(tx_to)='${to.toLowerCase()}'`;
       }
-      let sql = `SELECT * FROM TRANSACTIONS WHERE address=? AND (txType=? OR txType=?) AND transactionHash!='' AND transactionHash IS NOT NULL ${subSql} ORDER BY time DESC`;
-      let values: any[] = [address, 'tx', 'internaltx'];
-      if (index !== undefined && count !== undefined && index >= 0 && count > 0) {
-        sql = `${sql} LIMIT ? OFFSET ?`;
-        values = [...values, count, index];
-      }
+      const sql = `SELECT * FROM TRANSACTIONS WHERE address=? AND (txType=? OR txType=?) AND transactionHash!='' AND transactionHash IS NOT NULL ${subSql} ORDER BY time DESC LIMIT ? OFFSET ?`;
+      const values: any[] = [address, 'tx', 'internaltx', ...this.pageBounds(index, count)];
 
       this.db.executeSql(
         sql,
@@ -1497,33 +1501,6 @@ export class Sqlite {
     });
   }
 
-  async getAllTransactions(address: string, type: ChainType, chainId: string, txType: string): Promise<any[]> {
-    return new Promise((resolve) => {
-      const sql = 'SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND tx_chainId=?';
-      const values = [address, type, txType, chainId];
-
-      this.db.executeSql(
-        sql,
-        values,
-        (results: any) => {
-          if (results?.rows?.length > 0) {
-            if (txType === 'tx') {
-              resolve(this.normalizeTxs(results.rows.item, results.rows.length));
-            } else {
-              resolve(this.normalizeTokenTxs(results.rows.item, results.rows.length));
-            }
-          } else {
-            resolve([]);
-          }
-        },
-        (error: any) => {
-          this._errorLog('getAllTransactions', error);
-          resolve([]);
-        },
-      );
-    });
-  }
-
   async getReceiveTx(address: string, chainIds: string[], to: string, index: number, count: number) {
     return new Promise((resolve) => {
       if (!chainIds?.length) {
@@ -1763,20 +1740,16 @@ export class Sqlite {
       let sql;
       let values;
       if (from) {
-        sql = `SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND transactionHash!='' AND transactionHash IS NOT NULL AND tx_chainId=? AND lower(tx_contractAddress)=? AND lower(tx_from)=? ORDER BY time DESC`;
+        sql = `SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND transactionHash!='' AND transactionHash IS NOT NULL AND tx_chainId=? AND lower(tx_contractAddress)=? AND lower(tx_from)=? ORDER BY time DESC LIMIT ? OFFSET ?`;
         values = [address, type, 'tokentx', chainId, contractAddress.toLowerCase(), from.toLowerCase()];
       } else if (to) {
-        sql = `SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND transactionHash!='' AND transactionHash IS NOT NULL AND tx_chainId=? AND lower(tx_contractAddress)=? AND lower(tx_to)=? ORDER BY time DESC`;
+        sql = `SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND transactionHash!='' AND transactionHash IS NOT NULL AND tx_chainId=? AND lower(tx_contractAddress)=? AND lower(tx_to)=? ORDER BY time DESC LIMIT ? OFFSET ?`;
         values = [address, type, 'tokentx', chainId, contractAddress.toLowerCase(), to.toLowerCase()];
       } else {
-        sql = `SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND transactionHash!='' AND transactionHash IS NOT NULL AND tx_chainId=? AND lower(tx_contractAddress)=? ORDER BY time DESC`;
+        sql = `SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND transactionHash!='' AND transactionHash IS NOT NULL AND tx_chainId=? AND lower(tx_contractAddress)=? ORDER BY time DESC LIMIT ? OFFSET ?`;
         values = [address, type, 'tokentx', chainId, contractAddress.toLowerCase()];
       }
-
-      if (index != undefined && count != undefined) {
-        sql = `${sql} LIMIT ? OFFSET ?`;
-        values = [...values, count, index];
-      }
+      values = [...values, ...this.pageBounds(index, count)];
 
       this.db.executeSql(
         sql,
@@ -1805,17 +1778,16 @@ export class Sqlite {
     count: number | undefined = undefined,
   ) {
     return new Promise((resolve) => {
-      let sql;
-      let values;
-      if (index != undefined && count != undefined && index >= 0 && count > 0) {
-        sql =
-          'SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND tx_chainId=? AND lower(tx_contractAddress)=? ORDER BY time DESC LIMIT ? OFFSET ?';
-        values = [address, type, 'tokentx', chainId, contractAddress.toLowerCase(), count, index];
-      } else {
-        sql =
-          'SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND tx_chainId=? AND lower(tx_contractAddress)=? ORDER BY time DESC';
-        values = [address, type, 'tokentx', chainId, contractAddress.toLowerCase()];
-      }
+      const sql =
+        'SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND tx_chainId=? AND lower(tx_contractAddress)=? ORDER BY time DESC LIMIT ? OFFSET ?';
+      const values = [
+        address,
+        type,
+        'tokentx',
+        chainId,
+        contractAddress.toLowerCase(),
+        ...this.pageBounds(index, count),
+      ];
 
       this.db.executeSql(
         sql,
@@ -1919,7 +1891,14 @@ export class Sqlite {
     });
   }
 
-  async getAllTokenTx(address: string, chainId: string | null, from: string | null, to: string | null) {
+  async getAllTokenTx(
+    address: string,
+    chainId: string | null,
+    from: string | null,
+    to: string | null,
+    index: number | undefined = undefined,
+    count: number | undefined = undefined,
+  ) {
     return new Promise((resolve) => {
       let subSql = '';
       if (chainId) {
@@ -1930,8 +1909,8 @@ export class Sqlite {
       } else if (to) {
         subSql = `${subSql} AND lower(tx_to)='${to.toLowerCase()}'`;
       }
-      const sql = `SELECT * FROM TRANSACTIONS WHERE address=? AND txType=? ${subSql} ORDER BY time DESC`;
-      const values = [address, 'tokentx'];
+      const sql = `SELECT * FROM TRANSACTIONS WHERE address=? AND txType=? ${subSql} ORDER BY time DESC LIMIT ? OFFSET ?`;
+      const values = [address, 'tokentx', ...this.pageBounds(index, count)];
 
       this.db.executeSql(
         sql,
@@ -1951,24 +1930,21 @@ export class Sqlite {
     });
   }
 
+  /**
+   * At most count token transactions from index on, newest first. To go through a whole
+   * history, use forEachTransactionPage.
+   */
   async getTokenTransactions(
     address: string,
     type: ChainType,
     chainId: string,
-    index: number | undefined = undefined,
-    count: number | undefined = undefined,
+    index: number,
+    count: number,
   ): Promise<TokenTransactionInfo[]> {
     return new Promise((resolve) => {
-      let sql;
-      let values;
-      if (index != undefined && count != undefined && index >= 0 && count > 0) {
-        sql =
-          'SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND tx_chainId=? ORDER BY time DESC LIMIT ? OFFSET ?';
-        values = [address, type, 'tokentx', chainId, count, index];
-      } else {
-        sql = 'SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND tx_chainId=? ORDER BY time DESC';
-        values = [address, type, 'tokentx', chainId];
-      }
+      const sql =
+        'SELECT * FROM TRANSACTIONS WHERE address=? AND type=? AND txType=? AND tx_chainId=? ORDER BY time DESC LIMIT ? OFFSET ?';
+      const values = [address, type, 'tokentx', chainId, ...this.pageBounds(index, count)];
       this.db.executeSql(
         sql,
         values,
@@ -1987,6 +1963,92 @@ export class Sqlite {
     });
   }
 
+  /**
+   * One page of the transactions of address on chainId with one of txTypes, newest first. Pass
+   * the previous page's next as after; next is null on the last page. Read natively on Android,
+   * through the plugin elsewhere, with the same keyset so either holds one page at a time.
+   */
+  async getTransactionPage(
+    address: string,
+    type: ChainType,
+    chainId: string,
+    txTypes: string[],
+    after: TxPageKey | null = null,
+    limit = TX_PAGE_SIZE,
+  ): Promise<{ rows: any[]; next: TxPageKey | null }> {
+    if (TxStore) {
+      return TxStore.queryPage({ address, type, chainId, txTypes, after, limit });
+    }
+    return new Promise((resolve, reject) => {
+      let sql = `SELECT * FROM TRANSACTIONS WHERE address=? AND tx_chainId=? AND type=? AND txType IN (${txTypes
+        .map(() => '?')
+        .join(',')})`;
+      const values: any[] = [address, chainId, type, ...txTypes];
+      if (after && after.time === null) {
+        sql = `${sql} AND time IS NULL AND id<?`;
+        values.push(after.id);
+      } else if (after) {
+        sql = `${sql} AND (time<? OR (time=? AND id<?) OR time IS NULL)`;
+        values.push(after.time, after.time, after.id);
+      }
+      sql = `${sql} ORDER BY time DESC, id DESC LIMIT ?`;
+      values.push(limit);
+      this.db.executeSql(
+        sql,
+        values,
+        (results: any) => {
+          const rows = [];
+          for (let i = 0; i < results.rows.length; i++) {
+            rows.push(results.rows.item(i));
+          }
+          const last = rows.length === limit ? rows[rows.length - 1] : null;
+          resolve({ rows, next: last ? { time: last.time === undefined ? null : last.time, id: last.id } : null });
+        },
+        reject,
+      );
+    });
+  }
+
+  /**
+   * Hands the transactions of address on chainId with one of txTypes to onPage, newest first,
+   * one normalized page at a time, until the last page or until onPage returns false. Callers
+   * keep what they need of each page rather than the whole history.
+   */
+  async forEachTransactionPage(
+    address: string,
+    type: ChainType,
+    chainId: string,
+    txTypes: string[],
+    onPage: (txs: any[]) => boolean | void | Promise<boolean | void>,
+  ) {
+    const tokens = txTypes[0] === 'tokentx';
+    let after: TxPageKey | null = null;
+    do {
+      let page;
+      try {
+        page = await this.getTransactionPage(address, type, chainId, txTypes, after);
+      } catch (error) {
+        this._errorLog('forEachTransactionPage', error);
+        return;
+      }
+      const { rows } = page;
+      const item = (i: number) => rows[i];
+      const txs = tokens ? this.normalizeTokenTxs(item, rows.length) : this.normalizeTxs(item, rows.length);
+      if ((await onPage(txs)) === false) {
+        return;
+      }
+      after = page.next;
+    } while (after);
+  }
+
+  // [limit, offset] for LIMIT ? OFFSET ?; one default page when the caller gave no valid range
+  private pageBounds(index: number | undefined, count: number | undefined) {
+    if (index === undefined || count === undefined || index < 0 || count <= 0) {
+      return [TX_PAGE_SIZE, 0];
+    }
+    return [count, index];
+  }
+
   normalizeTxs(txs: any, length: number) {
     const transactions = [];
     for (let index = 0; index < length; index++) {